@@ -0,0 +1,41 @@
+package study.querydsl.predicate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 검색 조건 DTO 필드를 Querydsl 조건으로 바꾸는 규칙.
+ * compileQuerydsl 단계에서 {@code <DTO>Predicates} 클래스가 생성된다.
+ * <pre>
+ * &#64;QueryPredicate(path = "study.querydsl.entity.QMember.member.username")
+ * private String username;
+ *
+ * &#64;QueryPredicate(path = "study.querydsl.entity.QMember.member.age", op = QueryPredicate.Op.GOE)
+ * private Integer ageGoe;
+ * </pre>
+ * null 이거나 공백 문자열인 필드는 조건에서 빠진다.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.SOURCE)
+public @interface QueryPredicate {
+
+  /**
+   * Q 타입의 경로 상수 (예: study.querydsl.entity.QTeam.team.name). using 을 지정하면 생략한다.
+   */
+  String path() default "";
+
+  Op op() default Op.EQ;
+
+  /**
+   * 직접 조건을 만드는 static 메서드 (예: study.querydsl.dto.MemberSearchPredicates.usernameContains).
+   * 필드 값 하나를 받아 Predicate 를 반환해야 한다. 지정하면 path, op 는 무시한다.
+   */
+  String using() default "";
+
+  enum Op {
+    EQ, NE, GT, GOE, LT, LOE, STARTS_WITH, CONTAINS;
+  }
+
+}
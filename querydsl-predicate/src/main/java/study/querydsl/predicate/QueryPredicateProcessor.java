@@ -0,0 +1,343 @@
+package study.querydsl.predicate;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link QueryPredicate} 가 붙은 필드를 모아 DTO 마다 {@code <DTO>Predicates} 클래스를 생성한다.
+ * <p>
+ * 생성된 클래스는
+ * <ul>
+ * <li>getter 를 직접 호출하므로 리플렉션이 없고 null, 공백 문자열 필드는 조건을 만들지 않는다.</li>
+ * <li>Q 타입 경로를 static 상수로 한 번만 참조한다.</li>
+ * <li>값이 있는 필드의 비트를 모은 shape 를 제공한다. shape 가 같으면 만들어지는 JPQL 도 같으므로 쿼리 플랜 캐시 키로 쓸 수 있다.</li>
+ * <li>경로나 using 메서드만 바꿔서 같은 규칙을 적용하는 Mapping 을 제공한다. (querydsl-sql 경로, 샤드 등)</li>
+ * </ul>
+ */
+@SupportedAnnotationTypes("study.querydsl.predicate.QueryPredicate")
+public class QueryPredicateProcessor extends AbstractProcessor {
+
+  private static final String SUFFIX = "Predicates";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Map<TypeElement, List<VariableElement>> fieldsByType = new LinkedHashMap<>();
+    for (Element element : roundEnv.getElementsAnnotatedWith(QueryPredicate.class)) {
+      if (element.getKind() != ElementKind.FIELD) {
+        continue;
+      }
+      fieldsByType.computeIfAbsent((TypeElement) element.getEnclosingElement(), type -> new ArrayList<>())
+          .add((VariableElement) element);
+    }
+    for (Map.Entry<TypeElement, List<VariableElement>> entry : fieldsByType.entrySet()) {
+      if (validate(entry.getValue())) {
+        write(entry.getKey(), entry.getValue());
+      }
+    }
+    return true;
+  }
+
+  private boolean validate(List<VariableElement> fields) {
+    boolean valid = true;
+    if (fields.size() > Integer.SIZE - 1) {
+      error(fields.get(0), "@QueryPredicate supports at most " + (Integer.SIZE - 1) + " fields per type");
+      valid = false;
+    }
+    for (VariableElement field : fields) {
+      QueryPredicate annotation = field.getAnnotation(QueryPredicate.class);
+      if (annotation.path().isEmpty() && annotation.using().isEmpty()) {
+        error(field, "@QueryPredicate requires either path or using");
+        valid = false;
+      }
+      if (!annotation.using().isEmpty() && annotation.using().lastIndexOf('.') < 0) {
+        error(field, "@QueryPredicate using must be a fully qualified static method: " + annotation.using());
+        valid = false;
+      }
+    }
+    return valid;
+  }
+
+  private void write(TypeElement type, List<VariableElement> fields) {
+    String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    String dtoName = type.getSimpleName().toString();
+    String className = dtoName + SUFFIX;
+    String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+
+    try {
+      JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+      try (PrintWriter out = new PrintWriter(file.openWriter())) {
+        if (!packageName.isEmpty()) {
+          out.println("package " + packageName + ";");
+          out.println();
+        }
+        out.println("import com.querydsl.core.types.ConstantImpl;");
+        out.println("import com.querydsl.core.types.Expression;");
+        out.println("import com.querydsl.core.types.ExpressionUtils;");
+        out.println("import com.querydsl.core.types.Ops;");
+        out.println("import com.querydsl.core.types.Predicate;");
+        out.println();
+        out.println("import java.util.HashMap;");
+        out.println("import java.util.Map;");
+        out.println("import java.util.function.Function;");
+        out.println();
+        out.println("/**");
+        out.println(" * " + dtoName + " 검색 조건. " + QueryPredicateProcessor.class.getSimpleName()
+            + " 가 생성한 코드이므로 직접 수정하지 않는다.");
+        out.println(" */");
+        out.println("public final class " + className + " {");
+        out.println();
+
+        for (int i = 0; i < fields.size(); i++) {
+          out.println("  public static final int " + constantName(fields.get(i)) + " = 1 << " + i + ";");
+        }
+        out.println();
+        out.println("  private static final String[] NAMES = {");
+        for (VariableElement field : fields) {
+          out.println("      \"" + field.getSimpleName() + "\",");
+        }
+        out.println("  };");
+        out.println("  private static final Predicate[] NONE = new Predicate[0];");
+        out.println();
+        for (VariableElement field : fields) {
+          QueryPredicate annotation = field.getAnnotation(QueryPredicate.class);
+          if (annotation.using().isEmpty()) {
+            out.println("  private static final Expression<?> " + constantName(field) + "_PATH = "
+                + annotation.path() + ";");
+          }
+        }
+        out.println();
+        out.println("  private " + className + "() {");
+        out.println("  }");
+        out.println();
+
+        out.println("  /**");
+        out.println("   * 값이 있는 필드의 비트를 모은 값");
+        out.println("   */");
+        out.println("  public static int shapeOf(" + dtoName + " condition) {");
+        out.println("    int shape = 0;");
+        for (VariableElement field : fields) {
+          out.println("    if (" + presentCheck(field) + ") {");
+          out.println("      shape |= " + constantName(field) + ";");
+          out.println("    }");
+        }
+        out.println("    return shape;");
+        out.println("  }");
+        out.println();
+
+        out.println("  /**");
+        out.println("   * 로그, 지표용 shape 이름 (예: username,ageGoe)");
+        out.println("   */");
+        out.println("  public static String describe(int shape) {");
+        out.println("    StringBuilder sb = new StringBuilder();");
+        out.println("    for (int i = 0; i < NAMES.length; i++) {");
+        out.println("      if ((shape & (1 << i)) != 0) {");
+        out.println("        sb.append(sb.length() == 0 ? \"\" : \",\").append(NAMES[i]);");
+        out.println("      }");
+        out.println("    }");
+        out.println("    return sb.length() == 0 ? \"none\" : sb.toString();");
+        out.println("  }");
+        out.println();
+
+        out.println("  /**");
+        out.println("   * where() 에 그대로 넘길 수 있는 조건 배열. null 원소가 없다.");
+        out.println("   */");
+        out.println("  public static Predicate[] toPredicates(" + dtoName + " condition) {");
+        out.println("    int shape = shapeOf(condition);");
+        out.println("    if (shape == 0) {");
+        out.println("      return NONE;");
+        out.println("    }");
+        out.println("    Predicate[] predicates = new Predicate[Integer.bitCount(shape)];");
+        out.println("    int i = 0;");
+        for (VariableElement field : fields) {
+          out.println("    if ((shape & " + constantName(field) + ") != 0) {");
+          out.println("      predicates[i++] = " + predicate(field) + ";");
+          out.println("    }");
+        }
+        out.println("    return predicates;");
+        out.println("  }");
+        out.println();
+
+        writeMapping(out, dtoName, className, fields);
+        out.println("  private static boolean hasText(String value) {");
+        out.println("    if (value == null) {");
+        out.println("      return false;");
+        out.println("    }");
+        out.println("    for (int i = 0; i < value.length(); i++) {");
+        out.println("      if (!Character.isWhitespace(value.charAt(i))) {");
+        out.println("        return true;");
+        out.println("      }");
+        out.println("    }");
+        out.println("    return false;");
+        out.println("  }");
+        out.println();
+        out.println("}");
+      }
+    } catch (IOException e) {
+      error(type, "Failed to write " + qualifiedName + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * 같은 규칙을 다른 Q 타입 경로(예: querydsl-sql 의 SMember)나 다른 조건 메서드로 적용하는 Mapping.
+   * 필드를 추가하면 모든 Mapping 에도 같이 반영되므로 조건을 손으로 옮겨 적지 않아도 된다.
+   */
+  private void writeMapping(PrintWriter out, String dtoName, String className, List<VariableElement> fields) {
+    out.println("  public static Mapping mapping() {");
+    out.println("    return new Mapping();");
+    out.println("  }");
+    out.println();
+    out.println("  /**");
+    out.println("   * path 로 지정한 경로는 {@link #path} 로 바꾸고, using 필드는 같은 이름의 메서드로 조건 함수를 바꾼다.");
+    out.println("   * 경로를 하나라도 바꾸면 나머지 경로도 모두 지정해야 한다. (빠진 경로는 조회 시 IllegalStateException)");
+    out.println("   * 만든 뒤에는 바꾸지 않고 static 상수로 공유한다.");
+    out.println("   */");
+    out.println("  public static final class Mapping {");
+    out.println();
+    out.println("    private final Map<Expression<?>, Expression<?>> paths = new HashMap<>();");
+    for (VariableElement field : fields) {
+      QueryPredicate annotation = field.getAnnotation(QueryPredicate.class);
+      if (!annotation.using().isEmpty()) {
+        out.println("    private Function<" + boxedType(field) + ", ? extends Predicate> " + field.getSimpleName()
+            + " = " + annotation.using().substring(0, annotation.using().lastIndexOf('.')) + "::"
+            + annotation.using().substring(annotation.using().lastIndexOf('.') + 1) + ";");
+      }
+    }
+    out.println();
+    out.println("    private Mapping() {");
+    out.println("    }");
+    out.println();
+    out.println("    public Mapping path(Expression<?> from, Expression<?> to) {");
+    out.println("      paths.put(from, to);");
+    out.println("      return this;");
+    out.println("    }");
+    out.println();
+    for (VariableElement field : fields) {
+      if (!field.getAnnotation(QueryPredicate.class).using().isEmpty()) {
+        String name = field.getSimpleName().toString();
+        out.println("    public Mapping " + name + "(Function<" + boxedType(field) + ", ? extends Predicate> using) {");
+        out.println("      this." + name + " = using;");
+        out.println("      return this;");
+        out.println("    }");
+        out.println();
+      }
+    }
+    out.println("    public Predicate[] toPredicates(" + dtoName + " condition) {");
+    out.println("      int shape = shapeOf(condition);");
+    out.println("      if (shape == 0) {");
+    out.println("        return NONE;");
+    out.println("      }");
+    out.println("      Predicate[] predicates = new Predicate[Integer.bitCount(shape)];");
+    out.println("      int i = 0;");
+    for (VariableElement field : fields) {
+      QueryPredicate annotation = field.getAnnotation(QueryPredicate.class);
+      out.println("      if ((shape & " + constantName(field) + ") != 0) {");
+      if (annotation.using().isEmpty()) {
+        out.println("        predicates[i++] = ExpressionUtils.predicate(Ops." + operator(annotation.op()) + ", "
+            + "path(" + constantName(field) + "_PATH), ConstantImpl.create(" + getter(field) + "));");
+      } else {
+        out.println("        predicates[i++] = " + field.getSimpleName() + ".apply(" + getter(field) + ");");
+      }
+      out.println("      }");
+    }
+    out.println("      return predicates;");
+    out.println("    }");
+    out.println();
+    out.println("    private Expression<?> path(Expression<?> path) {");
+    out.println("      if (paths.isEmpty()) {");
+    out.println("        return path;");
+    out.println("      }");
+    out.println("      Expression<?> mapped = paths.get(path);");
+    out.println("      if (mapped == null) {");
+    out.println("        throw new IllegalStateException(\"No mapping for " + className + " path \" + path);");
+    out.println("      }");
+    out.println("      return mapped;");
+    out.println("    }");
+    out.println();
+    out.println("  }");
+    out.println();
+  }
+
+  private String boxedType(VariableElement field) {
+    if (field.asType().getKind().isPrimitive()) {
+      return processingEnv.getTypeUtils().boxedClass((PrimitiveType) field.asType()).getQualifiedName().toString();
+    }
+    return field.asType().toString();
+  }
+
+  private String presentCheck(VariableElement field) {
+    if (field.asType().getKind().isPrimitive()) {
+      return "true";
+    }
+    String value = getter(field);
+    return "java.lang.String".equals(field.asType().toString())
+        ? "hasText(" + value + ")"
+        : value + " != null";
+  }
+
+  private String predicate(VariableElement field) {
+    QueryPredicate annotation = field.getAnnotation(QueryPredicate.class);
+    if (!annotation.using().isEmpty()) {
+      return annotation.using() + "(" + getter(field) + ")";
+    }
+    return "ExpressionUtils.predicate(Ops." + operator(annotation.op()) + ", "
+        + constantName(field) + "_PATH, ConstantImpl.create(" + getter(field) + "))";
+  }
+
+  private static String operator(QueryPredicate.Op op) {
+    switch (op) {
+      case STARTS_WITH:
+        return "STARTS_WITH";
+      case CONTAINS:
+        return "STRING_CONTAINS";
+      default:
+        return op.name();
+    }
+  }
+
+  private static String getter(VariableElement field) {
+    String name = field.getSimpleName().toString();
+    String prefix = field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get";
+    return "condition." + prefix + Character.toUpperCase(name.charAt(0)) + name.substring(1) + "()";
+  }
+
+  // ageGoe -> AGE_GOE
+  private static String constantName(VariableElement field) {
+    String name = field.getSimpleName().toString();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (Character.isUpperCase(c) && i > 0) {
+        sb.append('_');
+      }
+      sb.append(Character.toUpperCase(c));
+    }
+    return sb.toString();
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+}
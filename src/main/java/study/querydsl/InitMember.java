@@ -1,35 +1,82 @@
 package study.querydsl;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.shard.ShardedMemberRepository;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+/**
+ * local 샘플 데이터. init-member.async=true 이면 기동을 막지 않도록 readiness 이후 백그라운드에서 넣는다.
+ */
+@Slf4j
 @Profile("local")
 @Component
-@RequiredArgsConstructor
 public class InitMember {
 
   private final InitMemberService initMemberService;
+  private final TaskExecutor applicationTaskExecutor;
+  private final boolean async;
+
+  public InitMember(InitMemberService initMemberService,
+      @Qualifier("applicationTaskExecutor") TaskExecutor applicationTaskExecutor,
+      @Value("${init-member.async:false}") boolean async) {
+    this.initMemberService = initMemberService;
+    this.applicationTaskExecutor = applicationTaskExecutor;
+    this.async = async;
+  }
 
   @PostConstruct
   public void init() {
-    initMemberService.init();
+    if (!async) {
+      initMemberService.init();
+    }
+  }
+
+  @EventListener
+  public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+    if (async && event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+      applicationTaskExecutor.execute(() -> {
+        long start = System.nanoTime();
+        initMemberService.init();
+        log.info("sample members seeded in {}ms", (System.nanoTime() - start) / 1_000_000);
+      });
+    }
   }
 
   @Component
   static class InitMemberService {
     @PersistenceContext
     private EntityManager em;
+    // 샤딩 모드에서는 기본 DataSource 에 쓸 수 없으므로 샤드 저장 API 로 넣는다.
+    @Autowired
+    private ObjectProvider<ShardedMemberRepository> shardedMemberRepository;
 
     @Transactional
     public void init() {
+      ShardedMemberRepository sharded = shardedMemberRepository.getIfAvailable();
+      if (sharded != null) {
+        Long teamAId = sharded.saveTeam("teamA").getId();
+        Long teamBId = sharded.saveTeam("teamB").getId();
+        for (int i = 0; i < 100; i++) {
+          sharded.saveMember("member" + i, i, i % 2 == 0 ? teamAId : teamBId);
+        }
+        return;
+      }
       Team teamA = new Team("teamA");
       Team teamB = new Team("teamB");
       em.persist(teamA);
@@ -1,17 +1,27 @@
 package study.querydsl;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.spring.SpringConnectionProvider;
+import com.querydsl.sql.spring.SpringExceptionTranslator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
 
 import javax.persistence.EntityManager;
+import javax.sql.DataSource;
 
 @SpringBootApplication
 public class QuerydslApplication {
 
   public static void main(String[] args) {
-    SpringApplication.run(QuerydslApplication.class, args);
+    SpringApplication application = new SpringApplication(QuerydslApplication.class);
+    // 기동 단계별 소요 시간을 남긴다. (/actuator/startup)
+    application.setApplicationStartup(new BufferingApplicationStartup(2048));
+    application.run(args);
   }
 
   @Bean
@@ -19,4 +29,12 @@ public class QuerydslApplication {
     return new JPAQueryFactory(em);
   }
 
+  // JPA 를 거치지 않는 SQL 쿼리 (study.querydsl.sql.S*). 트랜잭션 안에서만 쓸 수 있고 JPA 와 같은 커넥션을 쓴다.
+  @Bean
+  SQLQueryFactory sqlQueryFactory(DataSource dataSource) {
+    Configuration configuration = new Configuration(H2Templates.builder().build());
+    configuration.setExceptionTranslator(new SpringExceptionTranslator());
+    return new SQLQueryFactory(configuration, new SpringConnectionProvider(dataSource));
+  }
+
 }
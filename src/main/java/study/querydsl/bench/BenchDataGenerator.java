@@ -0,0 +1,106 @@
+package study.querydsl.bench;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.readmodel.ReadModels;
+
+/**
+ * 성능 측정용 대량 데이터 생성기.
+ * InitMember 처럼 행마다 persist 하지 않고 H2 SYSTEM_RANGE 를 이용한 insert ... select 로 청크 단위 생성한다.
+ * 난수 대신 id 해시를 써서 같은 설정이면 항상 같은 데이터가 만들어진다.
+ */
+@Slf4j
+@Profile("bench")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@EnableConfigurationProperties(BenchDataProperties.class)
+public class BenchDataGenerator implements ApplicationRunner {
+
+  // id 해시로 [0, 1) 구간의 균등 분포 값을 만든다. salt 마다 곱하는 수를 달리하고 xor-shift 로 한 번 더 섞어서
+  // 같은 행의 값끼리 상관이 없게 한다. (덧셈 salt 만 쓰면 값이 거의 같아진다)
+  private static final String UNIFORM =
+      "(mod(bitxor(%1$s, %1$s / 65536) * 73244475, 4294967296) / 4294967296.0)";
+  private static final String HASH = "mod(x * %d, 4294967296)";
+  // 32비트 홀수 상수 (xxHash 소수)
+  private static final long[] MULTIPLIERS = {2654435761L, 2246822519L, 3266489917L, 668265263L, 374761393L};
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ReadModels readModels;
+  private final BenchDataProperties properties;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    generate();
+  }
+
+  public void generate() {
+    long start = System.currentTimeMillis();
+    long base = jdbcTemplate.queryForObject("select next value for hibernate_sequence", Long.class);
+    long teamBase = base;
+    long memberBase = base + properties.getTeams();
+
+    insertInChunks(properties.getTeams(), (from, to) -> jdbcTemplate.update(
+        "insert into team (id, name) select ? + x, concat('team', x) from system_range(?, ?)",
+        teamBase, from, to));
+    insertInChunks(properties.getMembers(), (from, to) -> jdbcTemplate.update(
+        "insert into member (member_id, username, age, team_id)" +
+        " select ? + x, concat('member', x), " + ageExpression() + ", ? + " + teamExpression() +
+        " from system_range(?, ?)",
+        memberBase, teamBase, from, to));
+    jdbcTemplate.execute("alter sequence hibernate_sequence restart with " +
+        (memberBase + properties.getMembers() + 1));
+    long generated = System.currentTimeMillis();
+
+    if (properties.isRebuildReadModels()) {
+      readModels.rebuild();
+    }
+    log.info("bench data generated. teams={}, members={}, insert={}ms, readModels={}ms",
+        properties.getTeams(), properties.getMembers(), generated - start, System.currentTimeMillis() - generated);
+  }
+
+  private void insertInChunks(long rows, ChunkInsert insert) {
+    for (long from = 1; from <= rows; from += properties.getChunkSize()) {
+      long to = Math.min(from + properties.getChunkSize() - 1, rows);
+      long chunkFrom = from;
+      transactionTemplate.executeWithoutResult(status -> insert.insert(chunkFrom, to));
+    }
+  }
+
+  private String ageExpression() {
+    int range = properties.getMaxAge() - properties.getMinAge() + 1;
+    String u = properties.getAgeDistribution() == BenchDataProperties.AgeDistribution.NORMAL
+        // 균등 분포 3개의 평균은 종 모양에 가깝다.
+        ? "((" + uniform(1) + " + " + uniform(2) + " + " + uniform(3) + ") / 3)"
+        : uniform(1);
+    return properties.getMinAge() + " + cast(floor(" + u + " * " + range + ") as int)";
+  }
+
+  private String teamExpression() {
+    int teams = properties.getTeams();
+    String u = properties.getTeamDistribution() == BenchDataProperties.TeamDistribution.SKEWED
+        ? "power(" + uniform(4) + ", " + properties.getSkew() + ")"
+        : uniform(4);
+    return "1 + least(cast(floor(" + u + " * " + teams + ") as bigint), " + (teams - 1) + ")";
+  }
+
+  private static String uniform(int salt) {
+    return String.format(UNIFORM, String.format(HASH, MULTIPLIERS[salt % MULTIPLIERS.length]));
+  }
+
+  @FunctionalInterface
+  private interface ChunkInsert {
+    void insert(long from, long to);
+  }
+
+}
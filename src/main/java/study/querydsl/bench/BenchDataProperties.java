@@ -0,0 +1,32 @@
+package study.querydsl.bench;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bench.data")
+public class BenchDataProperties {
+
+  public enum AgeDistribution {UNIFORM, NORMAL}
+
+  public enum TeamDistribution {UNIFORM, SKEWED}
+
+  private int teams = 1_000;
+  private int members = 1_000_000;
+
+  private int minAge = 10;
+  private int maxAge = 80;
+  private AgeDistribution ageDistribution = AgeDistribution.UNIFORM;
+
+  // SKEWED 는 앞 번호 팀에 회원이 몰린다. skew 가 클수록 더 몰린다.
+  private TeamDistribution teamDistribution = TeamDistribution.UNIFORM;
+  private double skew = 2.0;
+
+  // 한 번의 insert ... select 로 넣을 행 수
+  private int chunkSize = 200_000;
+
+  private boolean rebuildReadModels = true;
+
+}
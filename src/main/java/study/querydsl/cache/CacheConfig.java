@@ -0,0 +1,39 @@
+package study.querydsl.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 노드별 로컬 캐시(spring.cache) 와 outbox 기반 무효화.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheInvalidationProperties.class)
+public class CacheConfig {
+
+  @Configuration
+  @EnableScheduling
+  @ConditionalOnProperty(prefix = "cache.invalidation", name = "enabled", matchIfMissing = true)
+  @RequiredArgsConstructor
+  static class InvalidationConfig implements SchedulingConfigurer {
+
+    private final CacheInvalidationProperties properties;
+    private final CacheInvalidationPoller poller;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+      registrar.addFixedDelayTask(poller::poll, properties.getPollInterval().toMillis());
+      registrar.addFixedDelayTask(poller::deleteExpired, TimeUnit.MINUTES.toMillis(1));
+    }
+
+  }
+
+}
@@ -0,0 +1,102 @@
+package study.querydsl.cache;
+
+import com.querydsl.core.dml.DMLClause;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.readmodel.MemberChange;
+import study.querydsl.readmodel.ReadModelSynchronizer;
+import study.querydsl.readmodel.TeamChange;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * Member/Team 변경을 같은 트랜잭션 안에서 cache_invalidation 에 기록한다.
+ * 엔티티 변경은 EntityChangeListener 로, 벌크 DML 은 {@link #execute(DMLClause, String)} 또는 ReadModels 호출로 들어온다.
+ * <p>
+ * 캐시된 MemberTeamDto 에 팀 이름이 들어 있으므로 팀 이름 변경/삭제는 member region 전체도 무효화한다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cache.invalidation", name = "enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CacheInvalidationOutbox implements ReadModelSynchronizer {
+
+  private static final String INSERT =
+      "insert into cache_invalidation (region, entity_id, created_at) values (:region, :entityId, current_timestamp)";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final CacheInvalidationProperties properties;
+
+  /**
+   * Querydsl 벌크 update/delete 를 실행하고 영향받은 행이 있으면 region 전체 무효화를 기록한다.
+   */
+  @Transactional
+  public long execute(DMLClause<?> clause, String region) {
+    long rows = clause.execute();
+    if (rows > 0) {
+      append(region, null);
+    }
+    return rows;
+  }
+
+  @Override
+  public void onMemberChanged(MemberChange change) {
+    append(CacheRegions.MEMBER, change.getMemberId());
+  }
+
+  @Override
+  public void onMembersChanged(Collection<MemberChange> changes) {
+    appendAll(CacheRegions.MEMBER, changes.stream().map(MemberChange::getMemberId).collect(Collectors.toList()));
+  }
+
+  @Override
+  public void onTeamChanged(TeamChange change) {
+    append(CacheRegions.TEAM, change.getTeamId());
+    if (change.isNameChanged() || change.getType() == TeamChange.Type.DELETE) {
+      append(CacheRegions.MEMBER, null);
+    }
+  }
+
+  @Override
+  public void refreshMembers(Collection<Long> memberIds) {
+    appendAll(CacheRegions.MEMBER, memberIds);
+  }
+
+  @Override
+  public void refreshTeams(Collection<Long> teamIds) {
+    appendAll(CacheRegions.TEAM, teamIds);
+    append(CacheRegions.MEMBER, null);
+  }
+
+  @Override
+  public void rebuild() {
+    append(CacheRegions.MEMBER, null);
+    append(CacheRegions.TEAM, null);
+  }
+
+  private void appendAll(String region, Collection<Long> ids) {
+    if (ids.size() > properties.getRegionThreshold()) {
+      append(region, null);
+      return;
+    }
+    jdbcTemplate.batchUpdate(INSERT, ids.stream()
+        .map(id -> params(region, id))
+        .toArray(MapSqlParameterSource[]::new));
+  }
+
+  private void append(String region, Long entityId) {
+    jdbcTemplate.update(INSERT, params(region, entityId));
+  }
+
+  private static MapSqlParameterSource params(String region, Long entityId) {
+    return new MapSqlParameterSource()
+        .addValue("region", region)
+        .addValue("entityId", entityId, Types.BIGINT);
+  }
+
+}
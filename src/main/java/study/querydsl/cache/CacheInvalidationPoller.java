@@ -0,0 +1,120 @@
+package study.querydsl.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 노드마다 하나씩 돌며 cache_invalidation 을 id 순으로 읽어 로컬 캐시를 비운다.
+ * 마지막으로 읽은 id 이후만 인덱스(PK) range scan 으로 가져오므로 변경이 없으면 빈 결과 한 번으로 끝난다.
+ * <p>
+ * 먼저 할당된 id 가 나중에 커밋되면 읽은 범위 안에 구멍이 생긴다. 구멍 id 는 gapTimeout 동안 따로 다시 확인한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "cache.invalidation", name = "enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CacheInvalidationPoller {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final CacheManager cacheManager;
+  private final CacheInvalidationProperties properties;
+
+  // 지금까지 읽은 가장 큰 id. 처음 poll 할 때 현재 최댓값으로 시작한다. (기동 직후 로컬 캐시는 비어 있다)
+  private long highWater = -1;
+  // 아직 보이지 않은 id -> 처음 발견한 시각
+  private final Map<Long, Long> gaps = new HashMap<>();
+
+  /**
+   * @return 적용한 무효화 건수
+   */
+  public synchronized int poll() {
+    if (highWater < 0) {
+      Long max = jdbcTemplate.getJdbcOperations().queryForObject("select max(id) from cache_invalidation", Long.class);
+      highWater = max == null ? 0 : max;
+      return 0;
+    }
+
+    int applied = 0;
+    long now = System.nanoTime();
+    if (!gaps.isEmpty()) {
+      for (Row row : select("where id in (:gaps)", new MapSqlParameterSource("gaps", gaps.keySet()))) {
+        gaps.remove(row.id);
+        applied += apply(row);
+      }
+      expireGaps(now);
+    }
+
+    List<Row> rows = select("where id > :highWater order by id limit :limit", new MapSqlParameterSource()
+        .addValue("highWater", highWater)
+        .addValue("limit", properties.getBatchSize()));
+    for (Row row : rows) {
+      for (long missing = highWater + 1; missing < row.id; missing++) {
+        gaps.put(missing, now);
+      }
+      highWater = row.id;
+      applied += apply(row);
+    }
+    return applied;
+  }
+
+  public void deleteExpired() {
+    int deleted = jdbcTemplate.update("delete from cache_invalidation where created_at < :cutoff",
+        new MapSqlParameterSource("cutoff", Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention()))));
+    if (deleted > 0) {
+      log.debug("deleted {} expired cache invalidations", deleted);
+    }
+  }
+
+  private void expireGaps(long now) {
+    long timeout = properties.getGapTimeout().toNanos();
+    for (Iterator<Long> it = gaps.values().iterator(); it.hasNext(); ) {
+      if (now - it.next() >= timeout) {
+        it.remove();
+      }
+    }
+  }
+
+  private int apply(Row row) {
+    Cache cache = cacheManager.getCache(row.region);
+    if (cache == null) {
+      return 0;
+    }
+    if (row.entityId == null) {
+      cache.clear();
+    } else {
+      cache.evict(row.entityId);
+    }
+    return 1;
+  }
+
+  private List<Row> select(String where, MapSqlParameterSource params) {
+    List<Row> rows = new ArrayList<>();
+    jdbcTemplate.query("select id, region, entity_id from cache_invalidation " + where, params, rs -> {
+      long entityId = rs.getLong("entity_id");
+      rows.add(new Row(rs.getLong("id"), rs.getString("region"), rs.wasNull() ? null : entityId));
+    });
+    return rows;
+  }
+
+  @RequiredArgsConstructor
+  private static class Row {
+    private final long id;
+    private final String region;
+    private final Long entityId;
+  }
+
+}
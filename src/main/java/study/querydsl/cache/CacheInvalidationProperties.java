@@ -0,0 +1,33 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cache.invalidation")
+public class CacheInvalidationProperties {
+
+  private boolean enabled = true;
+
+  private Duration pollInterval = Duration.ofSeconds(1);
+
+  // 한 번에 읽을 outbox 행 수
+  private int batchSize = 500;
+
+  // 이 건수보다 많은 회원을 한 번에 바꾸면 region 전체 무효화 한 건으로 기록한다.
+  private int regionThreshold = 1000;
+
+  /*
+  identity 값은 할당 순서대로 커밋되지 않을 수 있다. 비어 있는 id 는 이 시간 동안 다시 확인한 뒤 건너뛴다.
+  롤백된 트랜잭션의 id 는 영원히 비어 있으므로 무한정 기다리지는 않는다.
+   */
+  private Duration gapTimeout = Duration.ofSeconds(10);
+
+  // 모든 노드가 읽었다고 보고 지워도 되는 보관 기간
+  private Duration retention = Duration.ofHours(1);
+
+}
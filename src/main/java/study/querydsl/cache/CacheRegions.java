@@ -0,0 +1,12 @@
+package study.querydsl.cache;
+
+// 로컬 캐시 이름. outbox 의 region 값과 같다.
+public abstract class CacheRegions {
+
+  public static final String MEMBER = "member";
+  public static final String TEAM = "team";
+
+  private CacheRegions() {
+  }
+
+}
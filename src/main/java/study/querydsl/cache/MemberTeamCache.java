@@ -0,0 +1,58 @@
+package study.querydsl.cache;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.shard.ShardedMemberRepository;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 단건 조회 로컬 캐시. 다른 노드의 변경은 CacheInvalidationPoller 가 비운다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberTeamCache {
+
+  private final JPAQueryFactory queryFactory;
+  // shard.enabled=true 일 때만 있다. 기본 DB 에는 회원/팀이 없으므로 id 로 샤드를 골라 읽는다.
+  private final ObjectProvider<ShardedMemberRepository> shardedMemberRepository;
+
+  @Cacheable(cacheNames = CacheRegions.MEMBER)
+  public MemberTeamDto findMember(Long memberId) {
+    ShardedMemberRepository sharded = shardedMemberRepository.getIfAvailable();
+    if (sharded != null) {
+      return sharded.findMember(memberId);
+    }
+    return queryFactory
+        .select(new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(member.id.eq(memberId))
+        .fetchOne();
+  }
+
+  @Cacheable(cacheNames = CacheRegions.TEAM)
+  public String findTeamName(Long teamId) {
+    ShardedMemberRepository sharded = shardedMemberRepository.getIfAvailable();
+    if (sharded != null) {
+      return sharded.findTeamName(teamId);
+    }
+    return queryFactory
+        .select(team.name)
+        .from(team)
+        .where(team.id.eq(teamId))
+        .fetchOne();
+  }
+
+}
@@ -4,34 +4,73 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.cache.MemberTeamCache;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
-import study.querydsl.repository.MemberJpaRepository;
-import study.querydsl.repository.MemberRepository;
+import study.querydsl.dto.MemberUpsertResult;
+import study.querydsl.dto.MemberUpsertRow;
+import study.querydsl.repository.MemberUpsertRepository;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
-  private final MemberJpaRepository memberJpaRepository;
-  private final MemberRepository memberRepository;
+  private final MemberReadPaths readPaths;
+  private final MemberUpsertRepository memberUpsertRepository;
+  private final MemberQueryGuard guard;
+  private final MemberTeamCache memberTeamCache;
 
+  // 결과는 resultLimit 건에서 잘린다. 잘렸을 수 있으면 X-Result-Truncated 헤더로 알려준다.
   @GetMapping("/v1/members")
-  public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-    return memberJpaRepository.search(condition);
+  public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition, HttpServletResponse response) {
+    long limit = guard.resultLimit("v1");
+    List<MemberTeamDto> result = readPaths.forEndpoint("v1").search(condition, limit);
+    response.setHeader(MemberQueryGuard.RESULT_LIMIT_HEADER, String.valueOf(limit));
+    if (result.size() >= limit) {
+      response.setHeader(MemberQueryGuard.RESULT_TRUNCATED_HEADER, "true");
+    }
+    return result;
+  }
+
+  // 노드 로컬 캐시. 다른 노드에서 수정되면 outbox 폴링으로 무효화된다.
+  @GetMapping("/v1/members/{memberId}")
+  public MemberTeamDto findMemberV1(@PathVariable Long memberId) {
+    return memberTeamCache.findMember(memberId);
   }
 
   @GetMapping("/v2/members")
-  public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-    return memberRepository.searchPageSimple(condition, pageable);
+  public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable,
+      HttpServletResponse response) {
+    return readPaths.forEndpoint("v2").searchPageSimple(condition, limit(pageable, "v2", response));
   }
 
   @GetMapping("/v3/members")
-  public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-    return memberRepository.searchPageComplex(condition, pageable);
+  public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+      HttpServletResponse response) {
+    return readPaths.forEndpoint("v3").searchPageComplex(condition, limit(pageable, "v3", response));
+  }
+
+  // 외부 시스템 동기화. username 기준으로 있으면 수정, 없으면 등록
+  @PostMapping("/v1/members/upsert")
+  public MemberUpsertResult upsertMembers(@RequestBody List<MemberUpsertRow> rows,
+      @RequestParam(defaultValue = "" + MemberUpsertRepository.DEFAULT_BATCH_SIZE) int batchSize) {
+    return memberUpsertRepository.upsert(rows, batchSize);
+  }
+
+  private Pageable limit(Pageable pageable, String endpoint, HttpServletResponse response) {
+    Pageable limited = guard.limit(pageable, endpoint);
+    if (limited != pageable) {
+      response.setHeader(MemberQueryGuard.PAGE_SIZE_HEADER, String.valueOf(limited.getPageSize()));
+    }
+    return limited;
   }
 
 }
@@ -0,0 +1,154 @@
+package study.querydsl.controller;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 회원 조회 API 의 페이지 크기/결과 건수 상한.
+ * HikariCP 사용 중 커넥션 비율이 shrinkThreshold 를 넘으면 허용 크기를 minPageSize 까지 선형으로 줄이고,
+ * 커넥션 대기 스레드가 rejectPendingThreads 이상이면 DB 에 가기 전에 503 으로 거절한다.
+ * <p>
+ * 페이지 크기를 줄일 때는 요청한 offset 을 유지한다. 줄어든 크기와 결과 건수 상한은 응답 헤더
+ * ({@link #PAGE_SIZE_HEADER}, {@link #RESULT_LIMIT_HEADER}, {@link #RESULT_TRUNCATED_HEADER})로 알려준다.
+ * <p>
+ * 지표: member.guard.rejected, member.guard.clamped (reason=limit|saturation),
+ * member.guard.pool.saturation, member.guard.page.size.allowed
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(MemberQueryGuardProperties.class)
+public class MemberQueryGuard {
+
+  // 실제로 적용한 페이지 크기. 요청보다 줄었을 때만 보낸다.
+  public static final String PAGE_SIZE_HEADER = "X-Page-Size-Limited";
+  public static final String RESULT_LIMIT_HEADER = "X-Result-Limit";
+  // 결과가 상한만큼 채워져서 잘렸을 수 있을 때 true
+  public static final String RESULT_TRUNCATED_HEADER = "X-Result-Truncated";
+
+  private final MemberQueryGuardProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final HikariDataSource hikari;
+
+  public MemberQueryGuard(MemberQueryGuardProperties properties, MeterRegistry meterRegistry, DataSource dataSource) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    this.hikari = unwrapHikari(dataSource);
+
+    Gauge.builder("member.guard.pool.saturation", this, MemberQueryGuard::saturation)
+        .description("active / maximum connections")
+        .register(meterRegistry);
+    Gauge.builder("member.guard.page.size.allowed", this, guard -> guard.allowedPageSize(guard.saturation()))
+        .register(meterRegistry);
+  }
+
+  /**
+   * 허용 크기를 넘으면 크기만 줄이고 offset 은 그대로 둔다. (page=2,size=200 은 offset 400 부터 허용 크기만큼)
+   */
+  public Pageable limit(Pageable pageable, String endpoint) {
+    double saturation = checkPool(endpoint);
+    int allowed = allowedPageSize(saturation);
+    if (pageable.isUnpaged() || pageable.getPageSize() <= allowed) {
+      return pageable;
+    }
+    clamped(endpoint, allowed < properties.getMaxPageSize() ? "saturation" : "limit");
+    return new OffsetPageRequest(pageable.getOffset(), allowed, pageable.getSort());
+  }
+
+  /**
+   * offset 없는 커서 조회의 크기. 1 보다 작으면 400, 허용 크기를 넘으면 허용 크기로 줄인다.
+   */
+  public int limitSize(int size, String endpoint) {
+    if (size < 1) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be positive: " + size);
+    }
+    double saturation = checkPool(endpoint);
+    int allowed = allowedPageSize(saturation);
+    if (size <= allowed) {
+      return size;
+    }
+    clamped(endpoint, allowed < properties.getMaxPageSize() ? "saturation" : "limit");
+    return allowed;
+  }
+
+  /**
+   * 페이징 없는 목록 조회의 결과 건수 상한. 페이지 크기와 같은 비율로 줄어든다.
+   */
+  public long resultLimit(String endpoint) {
+    double saturation = checkPool(endpoint);
+    int allowedPageSize = allowedPageSize(saturation);
+    if (allowedPageSize < properties.getMaxPageSize()) {
+      clamped(endpoint, "saturation");
+      return Math.max(1, (long) properties.getMaxResultSize() * allowedPageSize / properties.getMaxPageSize());
+    }
+    return properties.getMaxResultSize();
+  }
+
+  private double checkPool(String endpoint) {
+    HikariPoolMXBean pool = pool();
+    if (pool != null && pool.getThreadsAwaitingConnection() >= properties.getRejectPendingThreads()) {
+      Counter.builder("member.guard.rejected")
+          .tag("endpoint", endpoint)
+          .register(meterRegistry)
+          .increment();
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "connection pool saturated");
+    }
+    return saturation();
+  }
+
+  int allowedPageSize(double saturation) {
+    int max = properties.getMaxPageSize();
+    double threshold = properties.getShrinkThreshold();
+    if (saturation <= threshold || threshold >= 1) {
+      return max;
+    }
+    double ratio = Math.min(1, (saturation - threshold) / (1 - threshold));
+    int min = Math.min(properties.getMinPageSize(), max);
+    return (int) Math.round(max - (max - min) * ratio);
+  }
+
+  private double saturation() {
+    HikariPoolMXBean pool = pool();
+    if (pool == null) {
+      return 0;
+    }
+    int maximum = hikari.getMaximumPoolSize();
+    return maximum <= 0 ? 0 : (double) pool.getActiveConnections() / maximum;
+  }
+
+  // 풀은 첫 커넥션 요청 때 만들어지므로 그 전에는 null
+  private HikariPoolMXBean pool() {
+    return hikari == null ? null : hikari.getHikariPoolMXBean();
+  }
+
+  private void clamped(String endpoint, String reason) {
+    Counter.builder("member.guard.clamped")
+        .tag("endpoint", endpoint)
+        .tag("reason", reason)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  private static HikariDataSource unwrapHikari(DataSource dataSource) {
+    try {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        return dataSource.unwrap(HikariDataSource.class);
+      }
+    } catch (SQLException e) {
+      log.warn("HikariDataSource not found, pool saturation checks are disabled", e);
+    }
+    return null;
+  }
+
+}
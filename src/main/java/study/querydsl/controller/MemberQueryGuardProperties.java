@@ -0,0 +1,27 @@
+package study.querydsl.controller;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.guard")
+public class MemberQueryGuardProperties {
+
+  // 페이징 API 최대 페이지 크기
+  private int maxPageSize = 100;
+
+  // 커넥션 풀이 포화될수록 줄어드는 페이지 크기의 하한
+  private int minPageSize = 10;
+
+  // 페이징 없는 목록 API 최대 결과 건수
+  private int maxResultSize = 1000;
+
+  // 사용 중인 커넥션 비율이 이 값을 넘으면 허용 크기를 줄이기 시작한다. (0 ~ 1)
+  private double shrinkThreshold = 0.5;
+
+  // 커넥션을 기다리는 스레드가 이 수 이상이면 503 으로 거절한다.
+  private int rejectPendingThreads = 4;
+
+}
@@ -0,0 +1,28 @@
+package study.querydsl.controller;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.read-path")
+public class MemberReadPathProperties {
+
+  // endpoints 에 없는 엔드포인트가 쓰는 구현
+  private ReadPath defaultPath = ReadPath.JPA;
+
+  // 엔드포인트(v1, v2, v3) 별 구현
+  private Map<String, ReadPath> endpoints = new HashMap<>();
+
+  public enum ReadPath {
+    // MemberRepository (JPQL + 영속성 컨텍스트, 샤딩 지원)
+    JPA,
+    // MemberSqlRepository (querydsl-sql, ResultSet 직접 매핑)
+    SQL
+  }
+
+}
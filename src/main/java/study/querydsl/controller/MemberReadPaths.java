@@ -0,0 +1,33 @@
+package study.querydsl.controller;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import study.querydsl.controller.MemberReadPathProperties.ReadPath;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSqlRepository;
+import study.querydsl.repository.MemberTeamQueries;
+
+/**
+ * 회원 검색 엔드포인트별로 JPA / SQL 조회 구현을 고른다. (member.read-path.endpoints.v1=sql)
+ */
+@Component
+@EnableConfigurationProperties(MemberReadPathProperties.class)
+public class MemberReadPaths {
+
+  private final MemberReadPathProperties properties;
+  private final MemberRepository memberRepository;
+  private final MemberSqlRepository memberSqlRepository;
+
+  public MemberReadPaths(MemberReadPathProperties properties, MemberRepository memberRepository,
+      MemberSqlRepository memberSqlRepository) {
+    this.properties = properties;
+    this.memberRepository = memberRepository;
+    this.memberSqlRepository = memberSqlRepository;
+  }
+
+  public MemberTeamQueries forEndpoint(String endpoint) {
+    ReadPath path = properties.getEndpoints().getOrDefault(endpoint, properties.getDefaultPath());
+    return path == ReadPath.SQL ? memberSqlRepository : memberRepository;
+  }
+
+}
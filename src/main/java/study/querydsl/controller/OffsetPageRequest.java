@@ -0,0 +1,73 @@
+package study.querydsl.controller;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * 페이지 번호가 아니라 offset 을 고정한 Pageable.
+ * 가드가 페이지 크기를 줄여도 요청한 위치(page * size)부터 읽도록 MemberQueryGuard 가 사용한다.
+ * offset 이 크기의 배수가 아니면 getPageNumber() 는 내림한 값이므로 다음 위치는 offset + numberOfElements 로 계산해야 한다.
+ */
+@EqualsAndHashCode
+@ToString
+public class OffsetPageRequest implements Pageable {
+
+  private final long offset;
+  private final int size;
+  private final Sort sort;
+
+  public OffsetPageRequest(long offset, int size, Sort sort) {
+    if (offset < 0) {
+      throw new IllegalArgumentException("Offset must not be negative: " + offset);
+    }
+    if (size < 1) {
+      throw new IllegalArgumentException("Page size must be positive: " + size);
+    }
+    this.offset = offset;
+    this.size = size;
+    this.sort = sort;
+  }
+
+  @Override
+  public int getPageNumber() {
+    return (int) (offset / size);
+  }
+
+  @Override
+  public int getPageSize() {
+    return size;
+  }
+
+  @Override
+  public long getOffset() {
+    return offset;
+  }
+
+  @Override
+  public Sort getSort() {
+    return sort;
+  }
+
+  @Override
+  public Pageable next() {
+    return new OffsetPageRequest(offset + size, size, sort);
+  }
+
+  @Override
+  public Pageable previousOrFirst() {
+    return hasPrevious() ? new OffsetPageRequest(Math.max(0, offset - size), size, sort) : first();
+  }
+
+  @Override
+  public Pageable first() {
+    return new OffsetPageRequest(0, size, sort);
+  }
+
+  @Override
+  public boolean hasPrevious() {
+    return offset > 0;
+  }
+
+}
@@ -0,0 +1,55 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.repository.TeamStatsRepository;
+import study.querydsl.repository.TeamSupportRepository;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+  private final TeamStatsRepository teamStatsRepository;
+  private final TeamSupportRepository teamSupportRepository;
+  private final MemberQueryGuard guard;
+
+  @GetMapping("/teams/stats")
+  public List<TeamStatsDto> teamStats() {
+    return teamStatsRepository.findAll();
+  }
+
+  @GetMapping("/teams/members")
+  public Page<TeamMembersDto> teamMembers(@RequestParam(required = false) String teamName, Pageable pageable,
+      HttpServletResponse response) {
+    Pageable limited = guard.limit(pageable, "teams");
+    if (limited != pageable) {
+      response.setHeader(MemberQueryGuard.PAGE_SIZE_HEADER, String.valueOf(limited.getPageSize()));
+    }
+    return teamSupportRepository.findWithMembers(teamName, limited)
+        .map(TeamMembersDto::new);
+  }
+
+  // offset 없이 마지막 팀 id 이후를 조회한다.
+  @GetMapping("/teams/members/cursor")
+  public Slice<TeamMembersDto> teamMembersAfter(@RequestParam(required = false) String teamName,
+      @RequestParam(required = false) Long after, @RequestParam(defaultValue = "20") int size,
+      HttpServletResponse response) {
+    int limited = guard.limitSize(size, "teams-cursor");
+    if (limited != size) {
+      response.setHeader(MemberQueryGuard.PAGE_SIZE_HEADER, String.valueOf(limited));
+    }
+    return teamSupportRepository.findWithMembersAfter(teamName, after, limited)
+        .map(TeamMembersDto::new);
+  }
+
+}
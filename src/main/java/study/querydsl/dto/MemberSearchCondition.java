@@ -1,13 +1,29 @@
 package study.querydsl.dto;
 
 import lombok.Data;
+import study.querydsl.predicate.QueryPredicate;
 
+import static study.querydsl.predicate.QueryPredicate.Op.GOE;
+import static study.querydsl.predicate.QueryPredicate.Op.LOE;
+import static study.querydsl.predicate.QueryPredicate.Op.STARTS_WITH;
+
+/**
+ * 조건 변환 코드는 compileQuerydsl 에서 MemberSearchConditionPredicates 로 생성된다.
+ */
 @Data
 public class MemberSearchCondition {
   // 회원명, 팀명, 나이 (ageGoe, ageLoe)
 
+  @QueryPredicate(path = "study.querydsl.entity.QMember.member.username")
   private String username;
+  @QueryPredicate(path = "study.querydsl.entity.QMember.member.username", op = STARTS_WITH)
+  private String usernameStartsWith;
+  @QueryPredicate(using = "study.querydsl.dto.MemberSearchPredicates.usernameContains")
+  private String usernameContains;
+  @QueryPredicate(path = "study.querydsl.entity.QTeam.team.name")
   private String teamName;
+  @QueryPredicate(path = "study.querydsl.entity.QMember.member.age", op = GOE)
   private Integer ageGoe;
+  @QueryPredicate(path = "study.querydsl.entity.QMember.member.age", op = LOE)
   private Integer ageLoe;
 }
@@ -0,0 +1,70 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.Query;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.jpa.JPAExpressions;
+import study.querydsl.readmodel.Trigrams;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberUsernameGram.memberUsernameGram;
+
+/**
+ * 회원명 부분 검색 조건. MemberSearchCondition 의 @QueryPredicate 와 여러 리포지토리(JPA, querydsl-sql)에서 같이 쓴다.
+ */
+public abstract class MemberSearchPredicates {
+
+  private MemberSearchPredicates() {
+  }
+
+  // like 'x%' 는 idx_member_username 인덱스 range scan 으로 처리된다.
+  public static BooleanExpression usernameStartsWith(String prefix) {
+    return usernameStartsWith(member.username, prefix);
+  }
+
+  public static BooleanExpression usernameStartsWith(StringPath username, String prefix) {
+    return hasText(prefix) ? username.startsWith(prefix) : null;
+  }
+
+  public static BooleanExpression usernameContains(String keyword) {
+    return usernameContains(member.id, member.username, keyword);
+  }
+
+  public static BooleanExpression usernameContains(NumberPath<Long> memberId, StringPath username, String keyword) {
+    return usernameContains(memberId, username, keyword,
+        () -> JPAExpressions.select(memberUsernameGram.memberId).from(memberUsernameGram),
+        memberUsernameGram.memberId, memberUsernameGram.gram);
+  }
+
+  /**
+   * like '%x%' 풀스캔 대신 trigram 테이블에서 모든 토큰을 가진 회원만 후보로 고른 뒤 원래 조건으로 다시 확인한다.
+   * 3글자 미만은 토큰을 만들 수 없으므로 like 로 처리한다.
+   * <p>
+   * JPQL 과 querydsl-sql 은 서브쿼리 시작점만 다르므로 gramMembers 로 받는다. (select gram.member_id from gram)
+   */
+  public static <Q extends Query<Q> & SubQueryExpression<Long>> BooleanExpression usernameContains(
+      SimpleExpression<Long> memberId, StringExpression username, String keyword,
+      Supplier<Q> gramMembers, SimpleExpression<Long> gramMemberId, SimpleExpression<String> gram) {
+    if (!hasText(keyword)) {
+      return null;
+    }
+    Set<String> grams = Trigrams.of(keyword);
+    if (grams.isEmpty()) {
+      return username.contains(keyword);
+    }
+    Q candidates = gramMembers.get()
+        .where(gram.in(grams))
+        .groupBy(gramMemberId)
+        .having(gram.count().eq((long) grams.size()));
+    return memberId.in(candidates).and(username.contains(keyword));
+  }
+
+}
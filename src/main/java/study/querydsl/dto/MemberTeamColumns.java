@@ -0,0 +1,160 @@
+package study.querydsl.dto;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 대량 조회용 열 단위 결과. MemberTeamDto 대신 원시 타입 배열에 담아 행마다 생기는 DTO, 박싱 객체를 없앤다.
+ * 팀 이름은 사전(teamNames)에 한 번만 두고 행에는 사전 인덱스만 둔다.
+ * usernames 는 행마다 문자열이 하나씩 생기므로 요청했을 때만 채운다.
+ * <p>
+ * 행 순서는 조회 순서와 같다. 팀이 없는 회원은 teamId 가 NO_TEAM, teamName 이 null 이다.
+ */
+public final class MemberTeamColumns {
+
+  public static final long NO_TEAM = 0L;
+  private static final int NO_NAME = -1;
+
+  private final int size;
+  private final long[] memberIds;
+  private final int[] ages;
+  private final long[] teamIds;
+  private final int[] teamNameCodes;
+  private final String[] teamNames;
+  private final String[] usernames;
+
+  private MemberTeamColumns(Builder builder) {
+    this.size = builder.size;
+    this.memberIds = Arrays.copyOf(builder.memberIds, size);
+    this.ages = Arrays.copyOf(builder.ages, size);
+    this.teamIds = Arrays.copyOf(builder.teamIds, size);
+    this.teamNameCodes = Arrays.copyOf(builder.teamNameCodes, size);
+    this.teamNames = new String[builder.dictionary.size()];
+    for (Map.Entry<String, Integer> entry : builder.dictionary.entrySet()) {
+      teamNames[entry.getValue()] = entry.getKey();
+    }
+    this.usernames = builder.usernames == null ? null : Arrays.copyOf(builder.usernames, size);
+  }
+
+  public static Builder builder(boolean withUsernames) {
+    return new Builder(withUsernames);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean hasUsernames() {
+    return usernames != null;
+  }
+
+  public long memberId(int row) {
+    return memberIds[checkRow(row)];
+  }
+
+  public int age(int row) {
+    return ages[checkRow(row)];
+  }
+
+  public long teamId(int row) {
+    return teamIds[checkRow(row)];
+  }
+
+  public String teamName(int row) {
+    int code = teamNameCodes[checkRow(row)];
+    return code == NO_NAME ? null : teamNames[code];
+  }
+
+  public String username(int row) {
+    if (usernames == null) {
+      throw new IllegalStateException("Usernames were not loaded");
+    }
+    return usernames[checkRow(row)];
+  }
+
+  // 서로 다른 팀 이름 수
+  public int teamNameCount() {
+    return teamNames.length;
+  }
+
+  /**
+   * 행마다 visitor 를 호출한다. DTO 를 만들지 않는다.
+   */
+  public void forEach(RowVisitor visitor) {
+    for (int i = 0; i < size; i++) {
+      int code = teamNameCodes[i];
+      visitor.visit(memberIds[i], usernames == null ? null : usernames[i], ages[i], teamIds[i],
+          code == NO_NAME ? null : teamNames[code]);
+    }
+  }
+
+  public MemberTeamDto toDto(int row) {
+    long teamId = teamId(row);
+    return new MemberTeamDto(memberId(row), usernames == null ? null : usernames[row], age(row),
+        teamId == NO_TEAM ? null : teamId, teamName(row));
+  }
+
+  private int checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row " + row + " out of " + size);
+    }
+    return row;
+  }
+
+  @FunctionalInterface
+  public interface RowVisitor {
+    // username 은 usernames 를 채우지 않았으면 null
+    void visit(long memberId, String username, int age, long teamId, String teamName);
+  }
+
+  public static final class Builder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private long[] memberIds = new long[INITIAL_CAPACITY];
+    private int[] ages = new int[INITIAL_CAPACITY];
+    private long[] teamIds = new long[INITIAL_CAPACITY];
+    private int[] teamNameCodes = new int[INITIAL_CAPACITY];
+    private String[] usernames;
+    // 팀 이름 -> 사전 인덱스 (등장 순서)
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    private Builder(boolean withUsernames) {
+      this.usernames = withUsernames ? new String[INITIAL_CAPACITY] : null;
+    }
+
+    public Builder add(long memberId, String username, int age, Long teamId, String teamName) {
+      if (size == memberIds.length) {
+        grow();
+      }
+      memberIds[size] = memberId;
+      ages[size] = age;
+      teamIds[size] = teamId == null ? NO_TEAM : teamId;
+      teamNameCodes[size] = teamName == null ? NO_NAME : dictionary.computeIfAbsent(teamName, k -> dictionary.size());
+      if (usernames != null) {
+        usernames[size] = username;
+      }
+      size++;
+      return this;
+    }
+
+    public MemberTeamColumns build() {
+      return new MemberTeamColumns(this);
+    }
+
+    private void grow() {
+      int capacity = memberIds.length + (memberIds.length >> 1);
+      memberIds = Arrays.copyOf(memberIds, capacity);
+      ages = Arrays.copyOf(ages, capacity);
+      teamIds = Arrays.copyOf(teamIds, capacity);
+      teamNameCodes = Arrays.copyOf(teamNameCodes, capacity);
+      if (usernames != null) {
+        usernames = Arrays.copyOf(usernames, capacity);
+      }
+    }
+
+  }
+
+}
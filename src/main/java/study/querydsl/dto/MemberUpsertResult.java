@@ -0,0 +1,35 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class MemberUpsertResult {
+
+  private final List<Batch> batches = new ArrayList<>();
+  private int inserted;
+  private int updated;
+  // 요청 안에서 username 이 중복되어 마지막 행만 반영한 건수
+  private int duplicates;
+  private long elapsedMillis;
+
+  public void add(Batch batch) {
+    batches.add(batch);
+    inserted += batch.getInserted();
+    updated += batch.getUpdated();
+  }
+
+  public long getRowsPerSecond() {
+    return elapsedMillis == 0 ? 0 : (inserted + updated) * 1000L / elapsedMillis;
+  }
+
+  @Data
+  public static class Batch {
+    private final int index;
+    private final int inserted;
+    private final int updated;
+  }
+
+}
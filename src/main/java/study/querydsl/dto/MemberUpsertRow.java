@@ -0,0 +1,15 @@
+package study.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 외부 시스템 회원 동기화 요청 한 건. username 이 자연 키
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberUpsertRow {
+  private String username;
+  private int age;
+  private String teamName;
+}
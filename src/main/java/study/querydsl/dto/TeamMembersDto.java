@@ -0,0 +1,25 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Data
+public class TeamMembersDto {
+
+  private Long teamId;
+  private String teamName;
+  private List<MemberDto> members;
+
+  // members 가 fetch join 으로 초기화된 팀에서 만든다.
+  public TeamMembersDto(Team team) {
+    this.teamId = team.getId();
+    this.teamName = team.getName();
+    this.members = team.getMembers().stream()
+        .map(m -> new MemberDto(m.getUsername(), m.getAge()))
+        .collect(Collectors.toList());
+  }
+
+}
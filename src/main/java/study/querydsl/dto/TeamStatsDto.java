@@ -0,0 +1,27 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+
+  private Long teamId;
+  private String teamName;
+  private long memberCount;
+  private Double averageAge;
+  private Integer minAge;
+  private Integer maxAge;
+
+  // 회원이 없는 팀은 집계 행이 없어서 left join 결과가 null 로 들어온다.
+  @QueryProjection
+  public TeamStatsDto(Long teamId, String teamName, Long memberCount, Long ageSum, Integer minAge, Integer maxAge) {
+    this.teamId = teamId;
+    this.teamName = teamName;
+    this.memberCount = memberCount == null ? 0 : memberCount;
+    this.averageAge = this.memberCount == 0 || ageSum == null ? null : (double) ageSum / this.memberCount;
+    this.minAge = minAge;
+    this.maxAge = maxAge;
+  }
+
+}
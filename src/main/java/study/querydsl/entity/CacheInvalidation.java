@@ -0,0 +1,43 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 캐시 무효화 outbox. 원본 변경과 같은 트랜잭션에서 기록되고 각 노드가 id 순으로 읽어 로컬 캐시를 비운다.
+ * CacheInvalidationOutbox 가 JDBC 로 쓰므로 JPA 로는 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@Table(name = "cache_invalidation", indexes = @Index(name = "idx_cache_invalidation_created_at", columnList = "created_at"))
+public class CacheInvalidation {
+
+  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private String region;
+
+  // null 이면 region 전체
+  @Column(name = "entity_id")
+  private Long entityId;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+}
@@ -11,16 +11,37 @@ import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
+import javax.persistence.NamedSubgraph;
+import javax.persistence.Table;
 
 @Entity
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = Member.WITH_TEAM, attributeNodes = @NamedAttributeNode("team")),
+    @NamedEntityGraph(name = Member.WITH_TEAM_MEMBERS,
+        attributeNodes = @NamedAttributeNode(value = "team", subgraph = "team.members"),
+        subgraphs = @NamedSubgraph(name = "team.members", attributeNodes = @NamedAttributeNode("members")))
+})
+@Table(indexes = {
+    // username 은 외부 동기화(upsert)의 자연 키
+    @Index(name = "idx_member_username", columnList = "username", unique = true),
+    @Index(name = "idx_member_age", columnList = "age")
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
+  // 조회 메서드에 넘기는 fetch plan (entity graph) 이름
+  public static final String WITH_TEAM = "Member.team";
+  public static final String WITH_TEAM_MEMBERS = "Member.teamMembers";
+
   @Id @GeneratedValue
   @Column(name = "member_id")
   private Long id;
@@ -0,0 +1,46 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * Member + Team 을 비정규화한 검색용 읽기 모델. 조인 없이 MemberTeamDto 를 만들 수 있다.
+ * MemberSearchSynchronizer 가 JDBC 로 유지하므로 JPA 로는 읽기만 한다.
+ * 조회 전에 Member/Team 의 대기 중인 변경을 flush 하도록 원본 테이블을 @Synchronize 로 알려준다.
+ */
+@Entity
+@Immutable
+@Synchronize({"member", "team"})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@Table(name = "member_search", indexes = {
+    @Index(name = "idx_member_search_username", columnList = "username"),
+    @Index(name = "idx_member_search_team_name", columnList = "team_name"),
+    @Index(name = "idx_member_search_team_id", columnList = "team_id")
+})
+public class MemberSearch {
+
+  @Id
+  @Column(name = "member_id")
+  private Long memberId;
+  private String username;
+  private int age;
+
+  @Column(name = "team_id")
+  private Long teamId;
+
+  @Column(name = "team_name")
+  private String teamName;
+
+}
@@ -0,0 +1,51 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+/**
+ * 회원명 부분 검색용 trigram 토큰 테이블.
+ * EntityChangeListener 가 Member 변경 시 JDBC 로 유지하므로 JPA 로는 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Synchronize("member")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@IdClass(MemberUsernameGram.Key.class)
+@Table(name = "member_username_gram",
+    indexes = @Index(name = "idx_member_username_gram", columnList = "gram, member_id"))
+public class MemberUsernameGram {
+
+  @Id
+  @Column(name = "member_id")
+  private Long memberId;
+
+  @Id
+  @Column(length = 12)
+  private String gram;
+
+  @EqualsAndHashCode
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private Long memberId;
+    private String gram;
+  }
+
+}
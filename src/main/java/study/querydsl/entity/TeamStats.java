@@ -0,0 +1,44 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 팀별 회원 수/나이 집계. 회원이 없는 팀은 행이 없다.
+ * TeamStatsSynchronizer 가 회원 변경마다 증분으로 유지하므로 JPA 로는 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Synchronize("member")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@Table(name = "team_stats")
+public class TeamStats {
+
+  @Id
+  @Column(name = "team_id")
+  private Long teamId;
+
+  @Column(name = "member_count")
+  private long memberCount;
+
+  @Column(name = "age_sum")
+  private long ageSum;
+
+  @Column(name = "min_age")
+  private int minAge;
+
+  @Column(name = "max_age")
+  private int maxAge;
+
+}
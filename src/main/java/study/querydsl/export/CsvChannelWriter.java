@@ -0,0 +1,116 @@
+package study.querydsl.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CSV 행을 UTF-8 로 인코딩해서 전달받은 (direct) ByteBuffer 에 모았다가 채널로 한 번에 쓴다.
+ * 버퍼는 호출한 쪽 소유이므로 close 후 다른 writer 에서 재사용할 수 있다.
+ */
+public class CsvChannelWriter implements Closeable {
+
+  private static final CharBuffer EMPTY = CharBuffer.allocate(0);
+
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer;
+  private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+  private final StringBuilder row = new StringBuilder(256);
+
+  public CsvChannelWriter(WritableByteChannel channel, ByteBuffer buffer) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.buffer.clear();
+  }
+
+  public static CsvChannelWriter open(Path path, boolean gzip, ByteBuffer buffer) throws IOException {
+    FileChannel fileChannel = FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    if (!gzip) {
+      return new CsvChannelWriter(fileChannel, buffer);
+    }
+    GZIPOutputStream gzipStream = new GZIPOutputStream(Channels.newOutputStream(fileChannel), buffer.capacity());
+    return new CsvChannelWriter(Channels.newChannel(gzipStream), buffer);
+  }
+
+  public void writeRow(Object... fields) throws IOException {
+    row.setLength(0);
+    for (int i = 0; i < fields.length; i++) {
+      if (i > 0) {
+        row.append(',');
+      }
+      appendField(fields[i]);
+    }
+    row.append('\n');
+    encode(CharBuffer.wrap(row), false);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      encode(EMPTY, true);
+      encoder.flush(buffer);
+      drain();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void appendField(Object field) {
+    if (field == null) {
+      return;
+    }
+    String value = field.toString();
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      row.append(value);
+      return;
+    }
+    row.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        row.append('"');
+      }
+      row.append(c);
+    }
+    row.append('"');
+  }
+
+  private void encode(CharBuffer chars, boolean endOfInput) throws IOException {
+    while (true) {
+      CoderResult result = encoder.encode(chars, buffer, endOfInput);
+      if (result.isUnderflow()) {
+        return;
+      }
+      if (result.isOverflow()) {
+        drain();
+      } else {
+        result.throwException();
+      }
+    }
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+}
@@ -0,0 +1,23 @@
+package study.querydsl.export;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ExportOptions {
+
+  // id 구간 하나의 크기. 구간마다 별도 읽기 전용 트랜잭션으로 조회한다.
+  @Builder.Default
+  private final long rangeSize = 10_000;
+
+  @Builder.Default
+  private final int parallelism = Runtime.getRuntime().availableProcessors();
+
+  @Builder.Default
+  private final boolean gzip = false;
+
+  @Builder.Default
+  private final int bufferSize = 256 * 1024;
+
+}
@@ -0,0 +1,19 @@
+package study.querydsl.export;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+@Value
+public class ExportResult {
+
+  Path path;
+  long rows;
+  int ranges;
+  long elapsedMillis;
+
+  public double getRowsPerSecond() {
+    return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+  }
+
+}
@@ -0,0 +1,128 @@
+package study.querydsl.export;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.shard.ShardedMemberRepository;
+import study.querydsl.shard.UnsupportedShardReadException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 전체 MemberTeamDto 를 CSV 로 내려받는다.
+ * id 공간을 구간으로 나눠 fork-join 풀에서 동시에 조회하고, 파일에는 구간 순서대로 쓴다.
+ * 메모리에는 최대 parallelism * 2 개의 구간만 올라온다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberExportJob {
+
+  private static final Object[] HEADER = {"memberId", "username", "age", "teamId", "teamName"};
+
+  private final JPAQueryFactory queryFactory;
+  private final PlatformTransactionManager transactionManager;
+  // shard.enabled=true 일 때만 있다. id 구간 조회는 기본 DataSource 만 읽는다.
+  private final ObjectProvider<ShardedMemberRepository> shardedMemberRepository;
+
+  // direct 버퍼는 할당 비용이 크므로 실행 간에 재사용한다.
+  private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+  public ExportResult export(Path path, ExportOptions options) throws IOException {
+    UnsupportedShardReadException.rejectIfSharded(shardedMemberRepository, "Member export");
+    long startNanos = System.nanoTime();
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    List<long[]> ranges = readOnly.execute(status -> split(options.getRangeSize()));
+    ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+    ByteBuffer buffer = acquireBuffer(options.getBufferSize());
+    long rows = 0;
+    try (CsvChannelWriter writer = CsvChannelWriter.open(path, options.isGzip(), buffer)) {
+      writer.writeRow(HEADER);
+      Deque<ForkJoinTask<List<MemberTeamDto>>> inFlight = new ArrayDeque<>();
+      int next = 0;
+      while (next < ranges.size() || !inFlight.isEmpty()) {
+        while (next < ranges.size() && inFlight.size() < options.getParallelism() * 2) {
+          long[] range = ranges.get(next++);
+          inFlight.add(pool.submit(() -> readOnly.execute(status -> fetch(range[0], range[1]))));
+        }
+        for (MemberTeamDto dto : inFlight.poll().join()) {
+          writer.writeRow(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(), dto.getTeamName());
+          rows++;
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+      buffers.offer(buffer);
+    }
+
+    ExportResult result = new ExportResult(path, rows, ranges.size(),
+        (System.nanoTime() - startNanos) / 1_000_000);
+    log.info("member export finished. path={}, rows={}, ranges={}, elapsed={}ms, throughput={} rows/s",
+        path, rows, result.getRanges(), result.getElapsedMillis(), (long) result.getRowsPerSecond());
+    return result;
+  }
+
+  // [from, to) 구간 목록
+  private List<long[]> split(long rangeSize) {
+    Tuple bounds = queryFactory
+        .select(member.id.min(), member.id.max())
+        .from(member)
+        .fetchOne();
+    List<long[]> ranges = new ArrayList<>();
+    Long min = bounds == null ? null : bounds.get(member.id.min());
+    Long max = bounds == null ? null : bounds.get(member.id.max());
+    if (min == null || max == null) {
+      return ranges;
+    }
+    for (long from = min; from <= max; from += rangeSize) {
+      ranges.add(new long[]{from, Math.min(from + rangeSize, max + 1)});
+    }
+    return ranges;
+  }
+
+  private List<MemberTeamDto> fetch(long from, long to) {
+    return queryFactory
+        .select(new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(member.id.goe(from), member.id.lt(to))
+        .orderBy(member.id.asc())
+        .fetch();
+  }
+
+  private ByteBuffer acquireBuffer(int bufferSize) {
+    ByteBuffer buffer = buffers.poll();
+    if (buffer == null || buffer.capacity() < bufferSize) {
+      return ByteBuffer.allocateDirect(bufferSize);
+    }
+    return buffer;
+  }
+
+}
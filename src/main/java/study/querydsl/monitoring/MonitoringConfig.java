@@ -0,0 +1,43 @@
+package study.querydsl.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * p6spy 자동 설정이 JdbcEventListener 빈을 모두 등록하므로 리스너는 빈으로만 만들면 된다.
+ */
+@Configuration
+@EnableConfigurationProperties({SlowQueryProperties.class, QueryShapeProperties.class})
+public class MonitoringConfig {
+
+  @Bean
+  public SlowQueryRingBuffer slowQueryRingBuffer(SlowQueryProperties properties) {
+    return new SlowQueryRingBuffer(properties.getCapacity());
+  }
+
+  @Bean
+  public SlowQueryListener slowQueryListener(SlowQueryRingBuffer slowQueryRingBuffer,
+      SlowQueryProperties properties) {
+    return new SlowQueryListener(slowQueryRingBuffer, properties);
+  }
+
+  @Bean
+  public SlowQueryEndpoint slowQueryEndpoint(SlowQueryRingBuffer slowQueryRingBuffer) {
+    return new SlowQueryEndpoint(slowQueryRingBuffer);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "monitoring.query-shapes", name = "enabled", matchIfMissing = true)
+  public QueryShapeListener queryShapeListener(QueryShapeProperties properties) {
+    return new QueryShapeListener(properties);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "monitoring.query-shapes", name = "enabled", matchIfMissing = true)
+  public QueryShapeEndpoint queryShapeEndpoint(QueryShapeListener queryShapeListener) {
+    return new QueryShapeEndpoint(queryShapeListener);
+  }
+
+}
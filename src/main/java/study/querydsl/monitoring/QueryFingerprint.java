@@ -0,0 +1,73 @@
+package study.querydsl.monitoring;
+
+import java.util.regex.Pattern;
+
+/**
+ * SQL 에서 리터럴과 파라미터 개수 차이를 지워 같은 모양의 쿼리를 하나로 묶는다.
+ * QueryDSL 이 만든 JPQL 은 조건 조합마다 SQL 모양이 달라지므로 SQL 단위로 묶으면 조건 조합별 통계가 된다.
+ * <pre>
+ * select ... where m.username='a' and m.age>=10 and m.id in (?, ?, ?)
+ *   -> select ... where m.username=? and m.age>=? and m.id in (?+)
+ * </pre>
+ */
+public abstract class QueryFingerprint {
+
+  private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+  private QueryFingerprint() {
+  }
+
+  public static String of(String sql) {
+    StringBuilder out = new StringBuilder(sql.length());
+    boolean pendingSpace = false;
+    int i = 0;
+    while (i < sql.length()) {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        pendingSpace = out.length() > 0;
+        i++;
+        continue;
+      }
+      if (pendingSpace) {
+        out.append(' ');
+        pendingSpace = false;
+      }
+      if (c == '\'') {
+        // 문자열 리터럴 ('' 는 이스케이프된 따옴표)
+        i++;
+        while (i < sql.length()) {
+          if (sql.charAt(i) == '\'') {
+            if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+              i += 2;
+              continue;
+            }
+            break;
+          }
+          i++;
+        }
+        out.append('?');
+        i++;
+      } else if (Character.isDigit(c) && !isIdentifierPart(out)) {
+        while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+          i++;
+        }
+        out.append('?');
+      } else if (Character.isJavaIdentifierPart(c)) {
+        while (i < sql.length() && Character.isJavaIdentifierPart(sql.charAt(i))) {
+          out.append(Character.toLowerCase(sql.charAt(i)));
+          i++;
+        }
+      } else {
+        out.append(c);
+        i++;
+      }
+    }
+    return IN_LIST.matcher(out).replaceAll("(?+)");
+  }
+
+  // member0_ 의 0 처럼 식별자 안의 숫자는 리터럴이 아니다.
+  private static boolean isIdentifierPart(StringBuilder out) {
+    return out.length() > 0 && Character.isJavaIdentifierPart(out.charAt(out.length() - 1));
+  }
+
+}
@@ -0,0 +1,33 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * GET /actuator/queryshapes?top=20&orderBy=TOTAL|COUNT|P99|MEAN, DELETE /actuator/queryshapes
+ */
+@Endpoint(id = "queryshapes")
+@RequiredArgsConstructor
+public class QueryShapeEndpoint {
+
+  private static final int DEFAULT_TOP = 20;
+
+  private final QueryShapeListener listener;
+
+  @ReadOperation
+  public List<QueryShapeReport> top(@Nullable Integer top, @Nullable QueryShapeListener.Order orderBy) {
+    return listener.top(top == null ? DEFAULT_TOP : top,
+        orderBy == null ? QueryShapeListener.Order.TOTAL : orderBy);
+  }
+
+  @DeleteOperation
+  public void reset() {
+    listener.reset();
+  }
+
+}
@@ -0,0 +1,91 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 모든 구문을 QueryFingerprint 별로 집계한다.
+ * 원본 SQL -> fingerprint 변환 결과를 캐시하므로 같은 SQL 은 정규화를 한 번만 한다.
+ */
+public class QueryShapeListener extends StatementExecutionListener {
+
+  static final String OTHER = "(other)";
+
+  public enum Order {TOTAL, COUNT, P99, MEAN}
+
+  private final int maxShapes;
+  private final ConcurrentMap<String, String> fingerprints = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, QueryShapeStats> stats = new ConcurrentHashMap<>();
+
+  public QueryShapeListener(QueryShapeProperties properties) {
+    this.maxShapes = properties.getMaxShapes();
+  }
+
+  @Override
+  protected boolean shouldTrack(long elapsedNanos) {
+    return true;
+  }
+
+  @Override
+  protected void onStatement(StatementInformation statement, long elapsedNanos, long rows, SQLException e) {
+    String sql = statement.getStatementQuery();
+    if (sql == null) {
+      return;
+    }
+    statsFor(fingerprint(sql)).record(elapsedNanos, rows, e != null);
+  }
+
+  public List<QueryShapeReport> top(int limit, Order order) {
+    List<QueryShapeReport> reports = new ArrayList<>(stats.size());
+    for (QueryShapeStats shape : stats.values()) {
+      reports.add(shape.report());
+    }
+    reports.sort(comparator(order).reversed());
+    return reports.size() > limit ? new ArrayList<>(reports.subList(0, limit)) : reports;
+  }
+
+  public void reset() {
+    stats.clear();
+  }
+
+  private String fingerprint(String sql) {
+    String fingerprint = fingerprints.get(sql);
+    if (fingerprint == null) {
+      if (fingerprints.size() >= maxShapes * 4) {
+        fingerprints.clear();
+      }
+      fingerprint = QueryFingerprint.of(sql);
+      fingerprints.put(sql, fingerprint);
+    }
+    return fingerprint;
+  }
+
+  private QueryShapeStats statsFor(String fingerprint) {
+    QueryShapeStats shape = stats.get(fingerprint);
+    if (shape != null) {
+      return shape;
+    }
+    String key = stats.size() < maxShapes ? fingerprint : OTHER;
+    return stats.computeIfAbsent(key, QueryShapeStats::new);
+  }
+
+  private static Comparator<QueryShapeReport> comparator(Order order) {
+    switch (order) {
+      case COUNT:
+        return Comparator.comparingLong(QueryShapeReport::getCount);
+      case P99:
+        return Comparator.comparingDouble(QueryShapeReport::getP99Millis);
+      case MEAN:
+        return Comparator.comparingDouble(QueryShapeReport::getMeanMillis);
+      default:
+        return Comparator.comparingDouble(QueryShapeReport::getTotalMillis);
+    }
+  }
+
+}
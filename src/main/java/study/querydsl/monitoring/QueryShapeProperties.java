@@ -0,0 +1,17 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "monitoring.query-shapes")
+public class QueryShapeProperties {
+
+  private boolean enabled = true;
+
+  // 모양이 이보다 많아지면 새 모양은 "(other)" 로 합산한다.
+  private int maxShapes = 1000;
+
+}
@@ -0,0 +1,20 @@
+package study.querydsl.monitoring;
+
+import lombok.Value;
+
+@Value
+public class QueryShapeReport {
+
+  String fingerprint;
+  long count;
+  long errors;
+  double totalMillis;
+  double meanMillis;
+  double p50Millis;
+  double p99Millis;
+  double maxMillis;
+  // 조회는 읽은 행 수, 변경은 영향받은 행 수
+  long rows;
+  double rowsPerExecution;
+
+}
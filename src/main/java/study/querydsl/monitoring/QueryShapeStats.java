@@ -0,0 +1,55 @@
+package study.querydsl.monitoring;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 쿼리 모양 하나의 누적 통계. 여러 스레드에서 락 없이 기록한다.
+ */
+class QueryShapeStats {
+
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+  private final String fingerprint;
+  private final LongAdder count = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAdder rows = new LongAdder();
+  private final Histogram latencyMicros = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 2);
+
+  QueryShapeStats(String fingerprint) {
+    this.fingerprint = fingerprint;
+  }
+
+  void record(long elapsedNanos, long rowCount, boolean error) {
+    count.increment();
+    totalNanos.add(elapsedNanos);
+    if (rowCount > 0) {
+      rows.add(rowCount);
+    }
+    if (error) {
+      errors.increment();
+    }
+    latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_TRACKABLE_MICROS));
+  }
+
+  QueryShapeReport report() {
+    long executions = count.sum();
+    double totalMillis = totalNanos.sum() / 1_000_000.0;
+    return new QueryShapeReport(
+        fingerprint,
+        executions,
+        errors.sum(),
+        totalMillis,
+        executions == 0 ? 0 : totalMillis / executions,
+        latencyMicros.getValueAtPercentile(50) / 1000.0,
+        latencyMicros.getValueAtPercentile(99) / 1000.0,
+        latencyMicros.getMaxValue() / 1000.0,
+        rows.sum(),
+        executions == 0 ? 0 : (double) rows.sum() / executions);
+  }
+
+}
@@ -0,0 +1,18 @@
+package study.querydsl.monitoring;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class SlowQuery {
+
+  long sequence;
+  Instant timestamp;
+  double elapsedMillis;
+  long rows;
+  String sql;
+  String caller;
+  String error;
+
+}
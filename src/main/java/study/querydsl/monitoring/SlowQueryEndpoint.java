@@ -0,0 +1,29 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * GET /actuator/slowqueries, DELETE /actuator/slowqueries
+ */
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+  private final SlowQueryRingBuffer buffer;
+
+  @ReadOperation
+  public List<SlowQuery> slowQueries() {
+    return buffer.snapshot();
+  }
+
+  @DeleteOperation
+  public void clear() {
+    buffer.clear();
+  }
+
+}
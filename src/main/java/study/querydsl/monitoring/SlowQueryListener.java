@@ -0,0 +1,62 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * threshold 이상 걸린 구문은 바인딩 값, 행 수, 호출한 리포지토리 메서드와 함께 링 버퍼에 남기고,
+ * 나머지는 sampleRate 비율로만 로그를 남긴다. 대부분의 구문은 시간 비교 한 번으로 끝난다.
+ */
+@Slf4j
+public class SlowQueryListener extends StatementExecutionListener {
+
+  private static final String APPLICATION_PACKAGE = "study.querydsl.";
+  private static final String MONITORING_PACKAGE = "study.querydsl.monitoring.";
+
+  private final SlowQueryRingBuffer buffer;
+  private final long thresholdNanos;
+  private final double sampleRate;
+
+  public SlowQueryListener(SlowQueryRingBuffer buffer, SlowQueryProperties properties) {
+    this.buffer = buffer;
+    this.thresholdNanos = properties.getThreshold().toNanos();
+    this.sampleRate = properties.getSampleRate();
+  }
+
+  @Override
+  protected boolean shouldTrack(long elapsedNanos) {
+    return elapsedNanos >= thresholdNanos
+        || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+  }
+
+  @Override
+  protected void onStatement(StatementInformation statement, long elapsedNanos, long rows, SQLException e) {
+    double elapsedMillis = elapsedNanos / 1_000_000.0;
+    if (elapsedNanos < thresholdNanos) {
+      log.info("sampled sql. elapsed={}ms, rows={}, sql={}", elapsedMillis, rows, statement.getSqlWithValues());
+      return;
+    }
+    String caller = caller();
+    buffer.add(new SlowQuery(buffer.nextSequence(), Instant.now(), elapsedMillis, rows,
+        statement.getSqlWithValues(), caller, e == null ? null : e.getMessage()));
+    log.warn("slow sql. elapsed={}ms, rows={}, caller={}, sql={}", elapsedMillis, rows, caller,
+        statement.getSqlWithValues());
+  }
+
+  // 느린 쿼리일 때만 스택을 확인하므로 일반 경로에는 비용이 없다.
+  private static String caller() {
+    for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+      String className = element.getClassName();
+      if (className.startsWith(APPLICATION_PACKAGE) && !className.startsWith(MONITORING_PACKAGE)
+          && !className.contains("$$")) {
+        return className.substring(APPLICATION_PACKAGE.length()) + "." + element.getMethodName();
+      }
+    }
+    return null;
+  }
+
+}
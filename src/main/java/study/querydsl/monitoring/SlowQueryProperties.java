@@ -0,0 +1,22 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "monitoring.slow-query")
+public class SlowQueryProperties {
+
+  // 이 시간 이상 걸린 구문은 모두 링 버퍼에 남긴다.
+  private Duration threshold = Duration.ofMillis(100);
+
+  // threshold 미만 구문을 로그로 남길 비율 (0 ~ 1)
+  private double sampleRate = 0.0;
+
+  private int capacity = 256;
+
+}
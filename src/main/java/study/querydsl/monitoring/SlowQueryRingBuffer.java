@@ -0,0 +1,57 @@
+package study.querydsl.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 최근 느린 쿼리를 고정 크기로 보관하는 lock-free 링 버퍼.
+ * 쓰기는 시퀀스 증가 + 슬롯 교체뿐이고, 읽을 때는 시퀀스가 맞지 않는 (이미 덮어쓴) 슬롯을 건너뛴다.
+ */
+public class SlowQueryRingBuffer {
+
+  private final AtomicReferenceArray<SlowQuery> slots;
+  private final int mask;
+  private final AtomicLong sequence = new AtomicLong();
+  private volatile long clearedBefore;
+
+  public SlowQueryRingBuffer(int capacity) {
+    int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  public long nextSequence() {
+    return sequence.getAndIncrement();
+  }
+
+  public void add(SlowQuery slowQuery) {
+    slots.set((int) (slowQuery.getSequence() & mask), slowQuery);
+  }
+
+  /**
+   * @return 오래된 것부터 최신 순
+   */
+  public List<SlowQuery> snapshot() {
+    long end = sequence.get();
+    long start = Math.max(clearedBefore, end - slots.length());
+    List<SlowQuery> result = new ArrayList<>((int) (end - start));
+    for (long seq = start; seq < end; seq++) {
+      SlowQuery slowQuery = slots.get((int) (seq & mask));
+      if (slowQuery != null && slowQuery.getSequence() == seq) {
+        result.add(slowQuery);
+      }
+    }
+    return result;
+  }
+
+  public void clear() {
+    clearedBefore = sequence.get();
+  }
+
+  public int capacity() {
+    return slots.length();
+  }
+
+}
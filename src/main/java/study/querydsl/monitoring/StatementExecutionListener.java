@@ -0,0 +1,111 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * p6spy 이벤트를 "구문 하나 = 콜백 하나" 로 정리한다.
+ * update 는 실행 직후, 조회는 ResultSet 을 닫을 때 (읽은 행 수를 알 수 있을 때) onStatement 를 호출한다.
+ * shouldTrack 이 false 면 아무것도 할당하지 않고 바로 반환한다.
+ */
+public abstract class StatementExecutionListener extends JdbcEventListener {
+
+  // ResultSet 을 닫지 않는 코드가 있어도 무한히 쌓이지 않도록 제한한다.
+  private static final int MAX_PENDING_QUERIES = 64;
+
+  private final ThreadLocal<Map<StatementInformation, long[]>> pendingQueries =
+      ThreadLocal.withInitial(IdentityHashMap::new);
+
+  protected abstract boolean shouldTrack(long elapsedNanos);
+
+  /**
+   * @param rows 조회는 읽은 행 수, 변경은 영향받은 행 수. 알 수 없으면 -1
+   */
+  protected abstract void onStatement(StatementInformation statement, long elapsedNanos, long rows,
+      SQLException e);
+
+  @Override
+  public void onAfterExecuteQuery(PreparedStatementInformation statement, long timeElapsedNanos, SQLException e) {
+    startQuery(statement, timeElapsedNanos, e);
+  }
+
+  @Override
+  public void onAfterExecuteQuery(StatementInformation statement, long timeElapsedNanos, String sql,
+      SQLException e) {
+    startQuery(statement, timeElapsedNanos, e);
+  }
+
+  @Override
+  public void onAfterResultSetClose(ResultSetInformation resultSet, SQLException e) {
+    Map<StatementInformation, long[]> pending = pendingQueries.get();
+    if (pending.isEmpty()) {
+      return;
+    }
+    long[] elapsed = pending.remove(resultSet.getStatementInformation());
+    if (elapsed != null) {
+      onStatement(resultSet.getStatementInformation(), elapsed[0], resultSet.getCurrRow() + 1, e);
+    }
+  }
+
+  @Override
+  public void onAfterExecute(PreparedStatementInformation statement, long timeElapsedNanos, SQLException e) {
+    record(statement, timeElapsedNanos, -1, e);
+  }
+
+  @Override
+  public void onAfterExecute(StatementInformation statement, long timeElapsedNanos, String sql, SQLException e) {
+    record(statement, timeElapsedNanos, -1, e);
+  }
+
+  @Override
+  public void onAfterExecuteUpdate(PreparedStatementInformation statement, long timeElapsedNanos, int rowCount,
+      SQLException e) {
+    record(statement, timeElapsedNanos, rowCount, e);
+  }
+
+  @Override
+  public void onAfterExecuteUpdate(StatementInformation statement, long timeElapsedNanos, String sql,
+      int rowCount, SQLException e) {
+    record(statement, timeElapsedNanos, rowCount, e);
+  }
+
+  @Override
+  public void onAfterExecuteBatch(StatementInformation statement, long timeElapsedNanos, int[] updateCounts,
+      SQLException e) {
+    long rows = 0;
+    if (updateCounts != null) {
+      for (int count : updateCounts) {
+        rows += Math.max(count, 0);
+      }
+    }
+    record(statement, timeElapsedNanos, rows, e);
+  }
+
+  private void startQuery(StatementInformation statement, long elapsedNanos, SQLException e) {
+    if (!shouldTrack(elapsedNanos)) {
+      return;
+    }
+    if (e != null) {
+      onStatement(statement, elapsedNanos, 0, e);
+      return;
+    }
+    Map<StatementInformation, long[]> pending = pendingQueries.get();
+    if (pending.size() >= MAX_PENDING_QUERIES) {
+      pending.clear();
+    }
+    pending.put(statement, new long[]{elapsedNanos});
+  }
+
+  private void record(StatementInformation statement, long elapsedNanos, long rows, SQLException e) {
+    if (shouldTrack(elapsedNanos)) {
+      onStatement(statement, elapsedNanos, rows, e);
+    }
+  }
+
+}
@@ -0,0 +1,111 @@
+package study.querydsl.readmodel;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+/**
+ * Member/Team 의 insert/update/delete 를 ReadModelSynchronizer 로 전달한다.
+ * post 이벤트는 flush 중 SQL 실행 직후에 같은 커넥션, 같은 트랜잭션 안에서 호출된다.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeListener implements PostInsertEventListener, PostUpdateEventListener,
+    PostDeleteEventListener {
+
+  private final List<ReadModelSynchronizer> synchronizers;
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    Object entity = event.getEntity();
+    if (entity instanceof Member) {
+      Member member = (Member) entity;
+      publish(MemberChange.inserted(member.getId(), memberState(event.getPersister(), event.getState())));
+    } else if (entity instanceof Team) {
+      Team team = (Team) entity;
+      publish(new TeamChange(TeamChange.Type.INSERT, team.getId(), null, team.getName()));
+    }
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    Object entity = event.getEntity();
+    EntityPersister persister = event.getPersister();
+    if (entity instanceof Member) {
+      Member member = (Member) entity;
+      publish(MemberChange.updated(member.getId(),
+          memberState(persister, event.getOldState()),
+          memberState(persister, event.getState())));
+    } else if (entity instanceof Team) {
+      Team team = (Team) entity;
+      Object[] oldState = event.getOldState();
+      String oldName = oldState == null ? null : (String) oldState[propertyIndex(persister, "name")];
+      publish(new TeamChange(TeamChange.Type.UPDATE, team.getId(), oldName, team.getName()));
+    }
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    Object entity = event.getEntity();
+    if (entity instanceof Member) {
+      publish(MemberChange.deleted((Long) event.getId(),
+          memberState(event.getPersister(), event.getDeletedState())));
+    } else if (entity instanceof Team) {
+      Team team = (Team) entity;
+      publish(new TeamChange(TeamChange.Type.DELETE, (Long) event.getId(), team.getName(), null));
+    }
+  }
+
+  @Override
+  public boolean requiresPostCommitHanding(EntityPersister persister) {
+    return false;
+  }
+
+  private void publish(MemberChange change) {
+    for (ReadModelSynchronizer synchronizer : synchronizers) {
+      synchronizer.onMemberChanged(change);
+    }
+  }
+
+  private void publish(TeamChange change) {
+    for (ReadModelSynchronizer synchronizer : synchronizers) {
+      synchronizer.onTeamChanged(change);
+    }
+  }
+
+  private static MemberChange.State memberState(EntityPersister persister, Object[] state) {
+    if (state == null) {
+      return null;
+    }
+    return new MemberChange.State(
+        (String) state[propertyIndex(persister, "username")],
+        (Integer) state[propertyIndex(persister, "age")],
+        teamId(state[propertyIndex(persister, "team")]));
+  }
+
+  private static int propertyIndex(EntityPersister persister, String propertyName) {
+    return persister.getEntityMetamodel().getPropertyIndex(propertyName);
+  }
+
+  private static Long teamId(Object team) {
+    if (team == null) {
+      return null;
+    }
+    if (team instanceof HibernateProxy) {
+      return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+    }
+    return ((Team) team).getId();
+  }
+
+}
@@ -0,0 +1,29 @@
+package study.querydsl.readmodel;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+// 모든 싱글톤을 만든 뒤 등록한다. deferred bootstrap 에서는 EntityManagerFactory 가 준비될 때까지 여기서 기다린다.
+@Component
+@RequiredArgsConstructor
+public class EntityChangeListenerRegistrar implements SmartInitializingSingleton {
+
+  private final EntityManagerFactory entityManagerFactory;
+  private final EntityChangeListener entityChangeListener;
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_INSERT, entityChangeListener);
+    registry.appendListeners(EventType.POST_UPDATE, entityChangeListener);
+    registry.appendListeners(EventType.POST_DELETE, entityChangeListener);
+  }
+
+}
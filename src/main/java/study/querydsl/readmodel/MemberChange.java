@@ -0,0 +1,61 @@
+package study.querydsl.readmodel;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.Value;
+
+import java.util.Objects;
+
+/**
+ * flush 시점에 발생한 Member 변경. before 는 INSERT 이거나 이전 상태를 알 수 없으면 null, after 는 DELETE 이면 null.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class MemberChange {
+
+  public enum Type {INSERT, UPDATE, DELETE}
+
+  private final Type type;
+  private final Long memberId;
+  private final State before;
+  private final State after;
+
+  public static MemberChange inserted(Long memberId, State after) {
+    return new MemberChange(Type.INSERT, memberId, null, after);
+  }
+
+  public static MemberChange updated(Long memberId, State before, State after) {
+    return new MemberChange(Type.UPDATE, memberId, before, after);
+  }
+
+  public static MemberChange deleted(Long memberId, State before) {
+    return new MemberChange(Type.DELETE, memberId, before, null);
+  }
+
+  public boolean isBeforeKnown() {
+    return type == Type.INSERT || before != null;
+  }
+
+  public boolean isUsernameChanged() {
+    return before == null || after == null || !Objects.equals(before.getUsername(), after.getUsername());
+  }
+
+  public boolean isTeamChanged() {
+    return before == null || after == null || !Objects.equals(before.getTeamId(), after.getTeamId());
+  }
+
+  public boolean isAgeChanged() {
+    return before == null || after == null || before.getAge() != after.getAge();
+  }
+
+  @Value
+  public static class State {
+    String username;
+    int age;
+    Long teamId;
+  }
+
+}
@@ -0,0 +1,85 @@
+package study.querydsl.readmodel;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.support.InClauseSupport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * member_search 테이블 유지.
+ * 변경된 회원 행은 member/team 원본에서 다시 읽어 merge 하므로 flush 순서와 상관없이 결과가 같다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchSynchronizer implements ReadModelSynchronizer {
+
+  private static final String SELECT_SOURCE =
+      "select m.member_id, m.username, m.age, m.team_id, t.name" +
+      " from member m left join team t on t.id = m.team_id";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public void onMemberChanged(MemberChange change) {
+    MapSqlParameterSource params = new MapSqlParameterSource("memberId", change.getMemberId());
+    switch (change.getType()) {
+      case INSERT:
+      case UPDATE:
+        jdbcTemplate.update("merge into member_search (member_id, username, age, team_id, team_name)" +
+            " key (member_id) " + SELECT_SOURCE + " where m.member_id = :memberId", params);
+        break;
+      case DELETE:
+        jdbcTemplate.update("delete from member_search where member_id = :memberId", params);
+        break;
+    }
+  }
+
+  // 배치는 member 테이블에 모두 반영된 뒤에 오므로 건별 merge 대신 id 묶음으로 다시 읽는다.
+  @Override
+  public void onMembersChanged(Collection<MemberChange> changes) {
+    refreshMembers(changes.stream().map(MemberChange::getMemberId).collect(Collectors.toList()));
+  }
+
+  @Override
+  public void onTeamChanged(TeamChange change) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("teamId", change.getTeamId())
+        .addValue("name", change.getName());
+    if (change.isNameChanged()) {
+      jdbcTemplate.update("update member_search set team_name = :name where team_id = :teamId", params);
+    } else if (change.getType() == TeamChange.Type.DELETE) {
+      jdbcTemplate.update("update member_search set team_id = null, team_name = null where team_id = :teamId",
+          params);
+    }
+  }
+
+  @Override
+  public void refreshMembers(Collection<Long> memberIds) {
+    for (List<Long> chunk : InClauseSupport.partition(new ArrayList<>(memberIds), InClauseSupport.DEFAULT_CHUNK_SIZE)) {
+      MapSqlParameterSource params = new MapSqlParameterSource("ids", chunk);
+      jdbcTemplate.update("delete from member_search where member_id in (:ids)", params);
+      jdbcTemplate.update("insert into member_search (member_id, username, age, team_id, team_name) " +
+          SELECT_SOURCE + " where m.member_id in (:ids)", params);
+    }
+  }
+
+  @Override
+  public void refreshTeams(Collection<Long> teamIds) {
+    jdbcTemplate.update("update member_search s set team_name = (select t.name from team t where t.id = s.team_id)" +
+        " where s.team_id in (:teamIds)", new MapSqlParameterSource("teamIds", teamIds));
+  }
+
+  @Override
+  public void rebuild() {
+    jdbcTemplate.getJdbcOperations().update("delete from member_search");
+    jdbcTemplate.getJdbcOperations().update("insert into member_search (member_id, username, age, team_id, team_name) " +
+        SELECT_SOURCE);
+  }
+
+}
@@ -0,0 +1,113 @@
+package study.querydsl.readmodel;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.support.InClauseSupport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * member_username_gram 테이블 유지.
+ * JpaTransactionManager 가 JPA 커넥션을 DataSource 에 바인딩하므로 JdbcTemplate 도 같은 트랜잭션에서 실행된다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberUsernameGramSynchronizer implements ReadModelSynchronizer {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public void onMemberChanged(MemberChange change) {
+    switch (change.getType()) {
+      case INSERT:
+        insertGrams(change.getMemberId(), change.getAfter().getUsername());
+        break;
+      case UPDATE:
+        if (change.isUsernameChanged()) {
+          deleteGrams(change.getMemberId());
+          insertGrams(change.getMemberId(), change.getAfter().getUsername());
+        }
+        break;
+      case DELETE:
+        deleteGrams(change.getMemberId());
+        break;
+    }
+  }
+
+  // username 이 바뀐 회원만 id 묶음으로 다시 만든다. 삭제된 회원은 member 에 없으므로 토큰만 지워진다.
+  @Override
+  public void onMembersChanged(Collection<MemberChange> changes) {
+    List<Long> memberIds = changes.stream()
+        .filter(change -> change.getType() != MemberChange.Type.UPDATE || change.isUsernameChanged())
+        .map(MemberChange::getMemberId)
+        .collect(Collectors.toList());
+    if (!memberIds.isEmpty()) {
+      refreshMembers(memberIds);
+    }
+  }
+
+  @Override
+  public void refreshMembers(Collection<Long> memberIds) {
+    for (List<Long> chunk : InClauseSupport.partition(new ArrayList<>(memberIds), InClauseSupport.DEFAULT_CHUNK_SIZE)) {
+      MapSqlParameterSource params = new MapSqlParameterSource("ids", chunk);
+      jdbcTemplate.update("delete from member_username_gram where member_id in (:ids)", params);
+      List<MapSqlParameterSource> batch = new ArrayList<>();
+      jdbcTemplate.query("select member_id, username from member where member_id in (:ids)", params,
+          rs -> {
+            addGrams(batch, rs.getLong("member_id"), rs.getString("username"));
+          });
+      flush(batch);
+    }
+  }
+
+  /**
+   * 회원 수가 많을 수 있으므로 자바로 가져오지 않고 SYSTEM_RANGE 로 위치를 펼쳐서 SQL 한 번으로 토큰을 만든다.
+   */
+  @Override
+  public void rebuild() {
+    jdbcTemplate.getJdbcOperations().update("delete from member_username_gram");
+    Integer maxLength = jdbcTemplate.getJdbcOperations().queryForObject(
+        "select coalesce(max(length(username)), 0) from member", Integer.class);
+    if (maxLength == null || maxLength < Trigrams.GRAM_LENGTH) {
+      return;
+    }
+    jdbcTemplate.getJdbcOperations().update("insert into member_username_gram (member_id, gram)" +
+        " select distinct m.member_id, substring(m.username, r.x, 3)" +
+        " from member m join system_range(1, ?) r on r.x <= length(m.username) - 2",
+        maxLength - Trigrams.GRAM_LENGTH + 1);
+  }
+
+  private void insertGrams(Long memberId, String username) {
+    List<MapSqlParameterSource> batch = new ArrayList<>();
+    addGrams(batch, memberId, username);
+    flush(batch);
+  }
+
+  private void deleteGrams(Long memberId) {
+    jdbcTemplate.update("delete from member_username_gram where member_id = :memberId",
+        new MapSqlParameterSource("memberId", memberId));
+  }
+
+  private static void addGrams(List<MapSqlParameterSource> batch, long memberId, String username) {
+    for (String gram : Trigrams.of(username)) {
+      batch.add(new MapSqlParameterSource()
+          .addValue("memberId", memberId)
+          .addValue("gram", gram));
+    }
+  }
+
+  private void flush(List<MapSqlParameterSource> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate("insert into member_username_gram (member_id, gram) values (:memberId, :gram)",
+        batch.toArray(new MapSqlParameterSource[0]));
+    batch.clear();
+  }
+
+}
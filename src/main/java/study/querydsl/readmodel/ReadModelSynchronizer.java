@@ -0,0 +1,34 @@
+package study.querydsl.readmodel;
+
+import java.util.Collection;
+
+/**
+ * Member/Team 에서 파생된 조회용 테이블을 유지한다.
+ * 엔티티 변경은 EntityChangeListener 가 flush 중에 같은 트랜잭션으로 전달하고,
+ * 벌크 update/delete 처럼 Hibernate 이벤트가 발생하지 않는 쓰기는 ReadModels 를 통해 실행하거나 refreshMembers/rebuild 를 호출해야 한다.
+ */
+public interface ReadModelSynchronizer {
+
+  void onMemberChanged(MemberChange change);
+
+  /**
+   * JDBC 배치처럼 여러 변경이 member 테이블에 모두 반영된 뒤 한 번에 전달된다. 기본은 한 건씩 처리한다.
+   * 테이블을 다시 읽어 집계하는 구현은 이미 배치 전체가 반영되어 있다는 점을 고려해야 한다.
+   */
+  default void onMembersChanged(Collection<MemberChange> changes) {
+    for (MemberChange change : changes) {
+      onMemberChanged(change);
+    }
+  }
+
+  default void onTeamChanged(TeamChange change) {
+  }
+
+  void refreshMembers(Collection<Long> memberIds);
+
+  default void refreshTeams(Collection<Long> teamIds) {
+  }
+
+  void rebuild();
+
+}
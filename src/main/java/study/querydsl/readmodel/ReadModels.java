@@ -0,0 +1,147 @@
+package study.querydsl.readmodel;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.repository.support.InClauseSupport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 벌크 update/delete, 네이티브 SQL 처럼 Hibernate 이벤트를 거치지 않는 쓰기 후에 모든 읽기 모델을 맞춘다.
+ * Member/Team 벌크 DML 은 {@link #updateMembers}, {@link #deleteMembers}, {@link #updateTeams} 로 실행하면
+ * 같은 트랜잭션에서 대상 회원의 전후 상태를 모아 증분으로 맞춘다. 직접 execute() 하면 refresh* 호출을 잊지 않아야 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReadModels {
+
+  private final List<ReadModelSynchronizer> synchronizers;
+  private final JPAQueryFactory queryFactory;
+
+  /**
+   * 조건에 맞는 회원을 벌크 update 하고 읽기 모델을 맞춘다. where 는 대상 조회와 update 에 같이 쓰이므로
+   * set 에서 따로 where 를 주지 않는다. update 전후 상태를 읽어서 {@link #memberChanged} 와 같은 증분 경로로 넘긴다.
+   */
+  @Transactional
+  public long updateMembers(Predicate where, UnaryOperator<JPAUpdateClause> set) {
+    Map<Long, MemberChange.State> before = states(where);
+    if (before.isEmpty()) {
+      return 0;
+    }
+    List<Long> memberIds = new ArrayList<>(before.keySet());
+    long rows = 0;
+    List<MemberChange> changes = new ArrayList<>(memberIds.size());
+    for (List<Long> chunk : InClauseSupport.partition(memberIds, InClauseSupport.DEFAULT_CHUNK_SIZE)) {
+      rows += set.apply(queryFactory.update(member).where(member.id.in(chunk))).execute();
+      states(member.id.in(chunk)).forEach((memberId, after) ->
+          changes.add(MemberChange.updated(memberId, before.get(memberId), after)));
+    }
+    memberChanged(changes);
+    return rows;
+  }
+
+  @Transactional
+  public long deleteMembers(Predicate where) {
+    Map<Long, MemberChange.State> before = states(where);
+    if (before.isEmpty()) {
+      return 0;
+    }
+    long rows = 0;
+    for (List<Long> chunk : InClauseSupport.partition(new ArrayList<>(before.keySet()),
+        InClauseSupport.DEFAULT_CHUNK_SIZE)) {
+      rows += queryFactory.delete(member).where(member.id.in(chunk)).execute();
+    }
+    List<MemberChange> changes = new ArrayList<>(before.size());
+    before.forEach((memberId, state) -> changes.add(MemberChange.deleted(memberId, state)));
+    memberChanged(changes);
+    return rows;
+  }
+
+  // 팀 이름 변경 등. 팀 삭제는 회원 FK 때문에 벌크로 하지 않는다.
+  @Transactional
+  public long updateTeams(Predicate where, UnaryOperator<JPAUpdateClause> set) {
+    List<Long> teamIds = queryFactory.select(team.id).from(team).where(where).fetch();
+    if (teamIds.isEmpty()) {
+      return 0;
+    }
+    long rows = 0;
+    for (List<Long> chunk : InClauseSupport.partition(teamIds, InClauseSupport.DEFAULT_CHUNK_SIZE)) {
+      rows += set.apply(queryFactory.update(team).where(team.id.in(chunk))).execute();
+    }
+    refreshTeams(teamIds);
+    return rows;
+  }
+
+  /**
+   * Hibernate 이벤트 없이 쓴 변경이지만 전후 상태를 아는 경우(StatelessSession 배치) 엔티티 변경과 같은 증분 경로로 맞춘다.
+   * member 테이블에 변경이 반영된 뒤에 호출해야 한다.
+   */
+  @Transactional
+  public void memberChanged(Collection<MemberChange> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    for (ReadModelSynchronizer synchronizer : synchronizers) {
+      synchronizer.onMembersChanged(changes);
+    }
+  }
+
+  /**
+   * 변경 전 상태를 모르는 경우. 구현에 따라 전체를 다시 집계할 수 있으므로 전후 상태를 알면 {@link #memberChanged} 를 쓴다.
+   */
+  @Transactional
+  public void refreshMembers(Collection<Long> memberIds) {
+    if (memberIds.isEmpty()) {
+      return;
+    }
+    for (ReadModelSynchronizer synchronizer : synchronizers) {
+      synchronizer.refreshMembers(memberIds);
+    }
+  }
+
+  // 팀 이름 벌크 변경처럼 영향받는 회원 id 를 특정하기 어려운 경우
+  @Transactional
+  public void refreshTeams(Collection<Long> teamIds) {
+    if (teamIds.isEmpty()) {
+      return;
+    }
+    for (ReadModelSynchronizer synchronizer : synchronizers) {
+      synchronizer.refreshTeams(teamIds);
+    }
+  }
+
+  @Transactional
+  public void rebuild() {
+    for (ReadModelSynchronizer synchronizer : synchronizers) {
+      synchronizer.rebuild();
+    }
+  }
+
+  // 스칼라 조회라 영속성 컨텍스트가 아니라 DB 의 현재 값을 읽는다. team.id 는 join 없이 FK 컬럼으로 나온다.
+  private Map<Long, MemberChange.State> states(Predicate where) {
+    Map<Long, MemberChange.State> states = new LinkedHashMap<>();
+    for (Tuple tuple : queryFactory
+        .select(member.id, member.username, member.age, member.team.id)
+        .from(member)
+        .where(where)
+        .fetch()) {
+      states.put(tuple.get(member.id), new MemberChange.State(
+          tuple.get(member.username), tuple.get(member.age), tuple.get(member.team.id)));
+    }
+    return states;
+  }
+
+}
@@ -0,0 +1,24 @@
+package study.querydsl.readmodel;
+
+import lombok.Value;
+
+import java.util.Objects;
+
+/**
+ * flush 시점에 발생한 Team 변경. oldName 은 INSERT 이거나 이전 상태를 알 수 없으면 null.
+ */
+@Value
+public class TeamChange {
+
+  public enum Type {INSERT, UPDATE, DELETE}
+
+  Type type;
+  Long teamId;
+  String oldName;
+  String name;
+
+  public boolean isNameChanged() {
+    return type == Type.UPDATE && !Objects.equals(oldName, name);
+  }
+
+}
@@ -0,0 +1,163 @@
+package study.querydsl.readmodel;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.support.InClauseSupport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * team_stats 테이블 유지.
+ * 회원 수/나이 합은 증분으로 더하고 빼며, 빠지는 회원이 최소/최대 나이였을 때만 해당 팀을 다시 집계한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsSynchronizer implements ReadModelSynchronizer {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public void onMemberChanged(MemberChange change) {
+    switch (change.getType()) {
+      case INSERT:
+        add(change.getAfter().getTeamId(), change.getAfter().getAge());
+        break;
+      case UPDATE:
+        if (!change.isBeforeKnown()) {
+          // 이전 팀을 알 수 없으면 증분 계산이 불가능하다.
+          rebuild();
+        } else if (change.isTeamChanged() || change.isAgeChanged()) {
+          boolean recomputed = remove(change.getBefore().getTeamId(), change.getBefore().getAge());
+          // 다시 집계한 팀에는 이미 변경 후 행이 들어 있으므로 같은 팀이면 더하지 않는다.
+          if (!recomputed || change.isTeamChanged()) {
+            add(change.getAfter().getTeamId(), change.getAfter().getAge());
+          }
+        }
+        break;
+      case DELETE:
+        remove(change.getBefore().getTeamId(), change.getBefore().getAge());
+        break;
+    }
+  }
+
+  /**
+   * 배치 전체가 이미 반영되어 있어 건별 증분은 다시 집계한 값과 겹칠 수 있으므로, 영향받은 팀만 한 번씩 다시 집계한다.
+   */
+  @Override
+  public void onMembersChanged(Collection<MemberChange> changes) {
+    Set<Long> teamIds = new HashSet<>();
+    for (MemberChange change : changes) {
+      if (change.getType() == MemberChange.Type.UPDATE && change.isBeforeKnown()
+          && !change.isTeamChanged() && !change.isAgeChanged()) {
+        continue;
+      }
+      if (!change.isBeforeKnown()) {
+        rebuild();
+        return;
+      }
+      if (change.getBefore() != null && change.getBefore().getTeamId() != null) {
+        teamIds.add(change.getBefore().getTeamId());
+      }
+      if (change.getAfter() != null && change.getAfter().getTeamId() != null) {
+        teamIds.add(change.getAfter().getTeamId());
+      }
+    }
+    for (List<Long> chunk : InClauseSupport.partition(new ArrayList<>(teamIds), InClauseSupport.DEFAULT_CHUNK_SIZE)) {
+      MapSqlParameterSource params = new MapSqlParameterSource("teamIds", chunk);
+      jdbcTemplate.update("delete from team_stats where team_id in (:teamIds)", params);
+      jdbcTemplate.update("insert into team_stats (team_id, member_count, age_sum, min_age, max_age)" +
+          " select team_id, count(*), sum(age), min(age), max(age) from member" +
+          " where team_id in (:teamIds) group by team_id", params);
+    }
+  }
+
+  @Override
+  public void onTeamChanged(TeamChange change) {
+    if (change.getType() == TeamChange.Type.DELETE) {
+      jdbcTemplate.update("delete from team_stats where team_id = :teamId",
+          new MapSqlParameterSource("teamId", change.getTeamId()));
+    }
+  }
+
+  /**
+   * 변경 전의 소속 팀을 알 수 없으므로 전체를 다시 집계한다. (팀 수가 아니라 회원 수에 비례)
+   * ReadModels 의 벌크 update/delete 와 upsert 는 전후 상태를 {@link #onMembersChanged} 로 넘기므로 여기로 오지 않는다.
+   */
+  @Override
+  public void refreshMembers(Collection<Long> memberIds) {
+    rebuild();
+  }
+
+  @Override
+  public void rebuild() {
+    jdbcTemplate.getJdbcOperations().update("delete from team_stats");
+    jdbcTemplate.getJdbcOperations().update(
+        "insert into team_stats (team_id, member_count, age_sum, min_age, max_age)" +
+        " select team_id, count(*), sum(age), min(age), max(age) from member" +
+        " where team_id is not null group by team_id");
+  }
+
+  private void add(Long teamId, int age) {
+    if (teamId == null) {
+      return;
+    }
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("teamId", teamId)
+        .addValue("age", age);
+    int updated = jdbcTemplate.update("update team_stats set member_count = member_count + 1," +
+        " age_sum = age_sum + :age, min_age = least(min_age, :age), max_age = greatest(max_age, :age)" +
+        " where team_id = :teamId", params);
+    if (updated == 0) {
+      jdbcTemplate.update("insert into team_stats (team_id, member_count, age_sum, min_age, max_age)" +
+          " values (:teamId, 1, :age, :age, :age)", params);
+    }
+  }
+
+  /**
+   * @return 팀을 member 테이블에서 다시 집계했으면 true
+   */
+  private boolean remove(Long teamId, int age) {
+    if (teamId == null) {
+      return false;
+    }
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("teamId", teamId)
+        .addValue("age", age);
+    List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+        "select member_count, min_age, max_age from team_stats where team_id = :teamId", params);
+    if (rows.isEmpty()) {
+      recompute(params);
+      return true;
+    }
+    Map<String, Object> row = rows.get(0);
+    long memberCount = ((Number) row.get("MEMBER_COUNT")).longValue();
+    int minAge = ((Number) row.get("MIN_AGE")).intValue();
+    int maxAge = ((Number) row.get("MAX_AGE")).intValue();
+    if (memberCount <= 1) {
+      jdbcTemplate.update("delete from team_stats where team_id = :teamId", params);
+    } else if (age == minAge || age == maxAge) {
+      recompute(params);
+      return true;
+    } else {
+      jdbcTemplate.update("update team_stats set member_count = member_count - 1, age_sum = age_sum - :age" +
+          " where team_id = :teamId", params);
+    }
+    return false;
+  }
+
+  // member 테이블은 post 이벤트 시점에 이미 변경이 반영되어 있다.
+  private void recompute(MapSqlParameterSource params) {
+    jdbcTemplate.update("delete from team_stats where team_id = :teamId", params);
+    jdbcTemplate.update("insert into team_stats (team_id, member_count, age_sum, min_age, max_age)" +
+        " select team_id, count(*), sum(age), min(age), max(age) from member" +
+        " where team_id = :teamId group by team_id", params);
+  }
+
+}
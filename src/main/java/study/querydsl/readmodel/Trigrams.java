@@ -0,0 +1,28 @@
+package study.querydsl.readmodel;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 문자열을 겹치는 3글자 토큰으로 나눈다. ("member1" -> mem, emb, mbe, ber, er1)
+ */
+public abstract class Trigrams {
+
+  public static final int GRAM_LENGTH = 3;
+
+  private Trigrams() {
+  }
+
+  public static Set<String> of(String text) {
+    if (text == null || text.length() < GRAM_LENGTH) {
+      return Collections.emptySet();
+    }
+    Set<String> grams = new LinkedHashSet<>();
+    for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+      grams.add(text.substring(i, i + GRAM_LENGTH));
+    }
+    return grams;
+  }
+
+}
@@ -0,0 +1,14 @@
+package study.querydsl.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// upsert 요청 검증 실패. API 에서는 400 으로 응답한다.
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidUpsertRequestException extends RuntimeException {
+
+  public InvalidUpsertRequestException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,177 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.hibernate.HibernateQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.readmodel.MemberChange;
+import study.querydsl.readmodel.ReadModels;
+import study.querydsl.shard.ShardedMemberRepository;
+import study.querydsl.shard.UnsupportedShardWriteException;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 배치 작업용 StatelessSession 기반 조회/저장.
+ * 1차 캐시, dirty checking, 지연 로딩이 없으므로 대량 처리에도 메모리가 일정하다.
+ * <p>
+ * StatelessSession 은 현재 트랜잭션의 커넥션 위에서 열리므로 호출한 쪽 트랜잭션과 함께 커밋/롤백된다. (없으면 메서드마다 시작)
+ * Hibernate 이벤트가 발생하지 않으므로 batchSize 건마다 JDBC 배치를 실행하고 그 배치의 변경 전후를 ReadModels 로 넘겨
+ * 같은 트랜잭션에서 읽기 모델과 캐시 outbox 를 맞춘다. 호출한 쪽 영속성 컨텍스트에 이미 올라온 회원은 갱신되지 않는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberBatchRepository {
+
+  public static final int DEFAULT_FETCH_SIZE = 1000;
+  public static final int DEFAULT_BATCH_SIZE = 500;
+
+  private final EntityManager em;
+  private final ReadModels readModels;
+  // shard.enabled=true 일 때만 있다. StatelessSession 은 Hibernate 이벤트를 거치지 않으므로 여기서 직접 막는다.
+  private final ObjectProvider<ShardedMemberRepository> shardedMemberRepository;
+
+  /**
+   * 조건에 맞는 회원을 team 과 함께 forward-only 커서로 한 건씩 넘긴다. 넘겨받은 엔티티는 어디에도 보관되지 않는다.
+   *
+   * @return 처리한 건수
+   */
+  @Transactional(readOnly = true)
+  public long scroll(Predicate where, int fetchSize, Consumer<Member> action) {
+    return withStatelessSession(session -> {
+      ScrollableResults results = new HibernateQuery<Member>(session)
+          .select(member)
+          .from(member)
+          .leftJoin(member.team, team).fetchJoin()
+          .where(where)
+          .setFetchSize(fetchSize)
+          .setReadOnly(true)
+          .scroll(ScrollMode.FORWARD_ONLY);
+      long count = 0;
+      try {
+        while (results.next()) {
+          action.accept((Member) results.get(0));
+          count++;
+        }
+      } finally {
+        results.close();
+      }
+      return count;
+    });
+  }
+
+  /**
+   * batchSize 건마다 JDBC 배치를 실행하고 읽기 모델을 맞춘다. 중간에 실패하면 트랜잭션 전체가 롤백된다.
+   *
+   * @return 저장된 회원 id
+   */
+  @Transactional
+  public List<Long> insertAll(Collection<Member> members, int batchSize) {
+    checkNotSharded("Member batch insert");
+    // 같은 트랜잭션에서 persist 한 팀을 참조할 수 있도록 먼저 반영한다.
+    em.flush();
+    return withStatelessSession(session -> {
+      session.setJdbcBatchSize(batchSize);
+      List<Long> ids = new ArrayList<>(members.size());
+      List<MemberChange> changes = new ArrayList<>(batchSize);
+      for (Member m : members) {
+        Long id = (Long) session.insert(m);
+        ids.add(id);
+        changes.add(MemberChange.inserted(id, state(m)));
+        if (changes.size() == batchSize) {
+          executeBatch(session, changes);
+        }
+      }
+      executeBatch(session, changes);
+      return ids;
+    });
+  }
+
+  /**
+   * 조건에 맞는 회원을 읽으면서 modifier 를 적용하고 바로 update 한다. 변경 여부와 상관없이 전체 컬럼을 update 한다.
+   * 한 번에 batchSize 건의 변경 전후만 들고 있으므로 대상 건수와 상관없이 메모리가 일정하다.
+   *
+   * @return 수정한 건수
+   */
+  @Transactional
+  public long updateAll(Predicate where, int batchSize, Consumer<Member> modifier) {
+    checkNotSharded("Member batch update");
+    em.flush();
+    return withStatelessSession(session -> {
+      session.setJdbcBatchSize(batchSize);
+      ScrollableResults results = new HibernateQuery<Member>(session)
+          .select(member)
+          .from(member)
+          .where(where)
+          .setFetchSize(batchSize)
+          .scroll(ScrollMode.FORWARD_ONLY);
+      long count = 0;
+      List<MemberChange> changes = new ArrayList<>(batchSize);
+      try {
+        while (results.next()) {
+          Member m = (Member) results.get(0);
+          MemberChange.State before = state(m);
+          modifier.accept(m);
+          session.update(m);
+          changes.add(MemberChange.updated(m.getId(), before, state(m)));
+          count++;
+          if (changes.size() == batchSize) {
+            executeBatch(session, changes);
+          }
+        }
+      } finally {
+        results.close();
+      }
+      executeBatch(session, changes);
+      return count;
+    });
+  }
+
+  // 읽기 모델 갱신이 member 테이블을 다시 읽을 수 있으므로 쌓인 JDBC 배치를 먼저 실행한다.
+  private void executeBatch(StatelessSession session, List<MemberChange> changes) {
+    ((SharedSessionContractImplementor) session).getJdbcCoordinator().executeBatch();
+    readModels.memberChanged(changes);
+    changes.clear();
+  }
+
+  private void checkNotSharded(String operation) {
+    if (shardedMemberRepository.getIfAvailable() != null) {
+      throw new UnsupportedShardWriteException(operation);
+    }
+  }
+
+  // 현재 트랜잭션의 커넥션으로 연다. 커넥션은 트랜잭션이 관리하므로 세션만 닫는다.
+  private <T> T withStatelessSession(Function<StatelessSession, T> work) {
+    Session session = em.unwrap(Session.class);
+    return session.doReturningWork(connection -> {
+      StatelessSession stateless = session.getSessionFactory().openStatelessSession(connection);
+      try {
+        return work.apply(stateless);
+      } finally {
+        stateless.close();
+      }
+    });
+  }
+
+  // team 은 초기화되지 않은 프록시일 수 있지만 id 조회는 초기화하지 않는다.
+  private static MemberChange.State state(Member m) {
+    return new MemberChange.State(m.getUsername(), m.getAge(), m.getTeam() == null ? null : m.getTeam().getId());
+  }
+
+}
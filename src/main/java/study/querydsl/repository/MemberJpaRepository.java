@@ -1,19 +1,28 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.FlushMode;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.InClauseSupport;
+import study.querydsl.repository.support.QueryOptions;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.dto.MemberSearchConditionPredicates.toPredicates;
+import static study.querydsl.dto.MemberSearchPredicates.usernameContains;
+import static study.querydsl.dto.MemberSearchPredicates.usernameStartsWith;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
@@ -37,6 +46,14 @@ public class MemberJpaRepository {
     return Optional.ofNullable(findMember);
   }
 
+  public List<Member> findAllByIds(Collection<Long> ids) {
+    return InClauseSupport.findAllByIds(em, Member.class, ids, Member::getId,
+        chunk -> queryFactory
+            .selectFrom(member)
+            .where(member.id.in(chunk))
+            .fetch());
+  }
+
   public List<Member> findAll() {
     return em.createQuery("select m from Member m", Member.class)
         .getResultList();
@@ -75,6 +92,12 @@ public class MemberJpaRepository {
     if (condition.getAgeLoe() != null) {
       builder.and(member.age.loe(condition.getAgeLoe()));
     }
+    if (hasText(condition.getUsernameStartsWith())) {
+      builder.and(usernameStartsWith(condition.getUsernameStartsWith()));
+    }
+    if (hasText(condition.getUsernameContains())) {
+      builder.and(usernameContains(condition.getUsernameContains()));
+    }
 
     return queryFactory
         .select(new QMemberTeamDto(
@@ -90,7 +113,7 @@ public class MemberJpaRepository {
   }
 
   public List<MemberTeamDto> search(MemberSearchCondition condition) {
-    return queryFactory
+    JPAQuery<MemberTeamDto> query = queryFactory
         .select(new QMemberTeamDto(
             member.id.as("memberId"),
             member.username,
@@ -99,12 +122,8 @@ public class MemberJpaRepository {
             team.name.as("teamName")))
         .from(member)
         .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        )
+        .where(toPredicates(condition));
+    return QueryOptions.LIST.applyTo(query)
         .fetch();
   }
 
@@ -113,29 +132,20 @@ public class MemberJpaRepository {
     return queryFactory
         .selectFrom(member)
         .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        )
+        .where(toPredicates(condition))
         .fetch();
   }
 
-  private BooleanExpression usernameEq(String username) {
-    return hasText(username) ? member.username.eq(username) : null;
-  }
-
-  private BooleanExpression teamNameEq(String teamName) {
-    return hasText(teamName) ? team.name.eq(teamName) : null;
-  }
-
-  private BooleanExpression ageGoe(Integer ageGoe) {
-    return ageGoe != null ? member.age.goe(ageGoe) : null;
-  }
-
-  private BooleanExpression ageLoe(Integer ageLoe) {
-    return ageLoe != null ? member.age.loe(ageLoe) : null;
+  // 읽기 전용 조회. 스냅샷을 만들지 않고 조회 전 flush 도 하지 않는다.
+  @Transactional(readOnly = true)
+  public List<Member> searchMemberReadOnly(MemberSearchCondition condition) {
+    return queryFactory
+        .selectFrom(member)
+        .leftJoin(member.team, team)
+        .where(toPredicates(condition))
+        .setHint(QueryHints.READ_ONLY, true)
+        .setHint(QueryHints.FLUSH_MODE, FlushMode.MANUAL)
+        .fetch();
   }
 
 }
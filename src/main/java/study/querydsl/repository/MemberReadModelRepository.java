@@ -0,0 +1,112 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchPredicates;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.QueryOptions;
+
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMemberSearch.memberSearch;
+
+/**
+ * MemberRepositoryCustom 의 검색을 member_search 읽기 모델에서 조인 없이 실행한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberReadModelRepository {
+
+  private final JPAQueryFactory queryFactory;
+
+  public List<MemberTeamDto> search(MemberSearchCondition condition) {
+    JPAQuery<MemberTeamDto> query = queryFactory
+        .select(memberTeamDto())
+        .from(memberSearch)
+        .where(searchCondition(condition));
+    return QueryOptions.LIST.applyTo(query)
+        .fetch();
+  }
+
+  public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+    JPAQuery<MemberTeamDto> query = queryFactory
+        .select(memberTeamDto())
+        .from(memberSearch)
+        .where(searchCondition(condition))
+        .orderBy(MemberSortKeys.MEMBER_SEARCH.toOrderSpecifiers(pageable.getSort()))
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize());
+    QueryResults<MemberTeamDto> results = QueryOptions.page(pageable).applyTo(query)
+        .fetchResults();
+
+    return new PageImpl<>(results.getResults(), pageable, results.getTotal());
+  }
+
+  public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+    JPAQuery<MemberTeamDto> query = queryFactory
+        .select(memberTeamDto())
+        .from(memberSearch)
+        .where(searchCondition(condition))
+        .orderBy(MemberSortKeys.MEMBER_SEARCH.toOrderSpecifiers(pageable.getSort()))
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize());
+    List<MemberTeamDto> content = QueryOptions.page(pageable).applyTo(query)
+        .fetch();
+
+    JPAQuery<Long> countQuery = queryFactory
+        .select(memberSearch.count())
+        .from(memberSearch)
+        .where(searchCondition(condition));
+
+    return PageableExecutionUtils.getPage(content, pageable, QueryOptions.COUNT.applyTo(countQuery)::fetchOne);
+  }
+
+  private static QMemberTeamDto memberTeamDto() {
+    return new QMemberTeamDto(
+        memberSearch.memberId,
+        memberSearch.username,
+        memberSearch.age,
+        memberSearch.teamId,
+        memberSearch.teamName);
+  }
+
+  private static BooleanExpression[] searchCondition(MemberSearchCondition condition) {
+    return new BooleanExpression[]{
+        usernameEq(condition.getUsername()),
+        teamNameEq(condition.getTeamName()),
+        ageGoe(condition.getAgeGoe()),
+        ageLoe(condition.getAgeLoe()),
+        MemberSearchPredicates.usernameStartsWith(memberSearch.username, condition.getUsernameStartsWith()),
+        MemberSearchPredicates.usernameContains(memberSearch.memberId, memberSearch.username,
+            condition.getUsernameContains())
+    };
+  }
+
+  private static BooleanExpression usernameEq(String username) {
+    return hasText(username) ? memberSearch.username.eq(username) : null;
+  }
+
+  private static BooleanExpression teamNameEq(String teamName) {
+    return hasText(teamName) ? memberSearch.teamName.eq(teamName) : null;
+  }
+
+  private static BooleanExpression ageGoe(Integer ageGoe) {
+    return ageGoe != null ? memberSearch.age.goe(ageGoe) : null;
+  }
+
+  private static BooleanExpression ageLoe(Integer ageLoe) {
+    return ageLoe != null ? memberSearch.age.loe(ageLoe) : null;
+  }
+
+}
@@ -1,14 +1,13 @@
 package study.querydsl.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface MemberRepositoryCustom {
+public interface MemberRepositoryCustom extends MemberTeamQueries {
+  List<Member> findAllByIds(Collection<Long> ids);
   List<MemberTeamDto> search(MemberSearchCondition condition);
-  Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
-  Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
 }
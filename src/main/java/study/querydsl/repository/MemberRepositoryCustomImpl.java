@@ -1,10 +1,10 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -13,21 +13,42 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.InClauseSupport;
+import study.querydsl.repository.support.QueryOptions;
+import study.querydsl.shard.ShardedMemberRepository;
 
+import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
 
-import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.dto.MemberSearchConditionPredicates.toPredicates;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
 @RequiredArgsConstructor
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
 
+  private final EntityManager em;
   private final JPAQueryFactory queryFactory;
+  // shard.enabled=true 일 때만 있다. 있으면 검색을 모든 샤드로 보낸다.
+  private final ObjectProvider<ShardedMemberRepository> shardedMemberRepository;
+
+  @Override
+  public List<Member> findAllByIds(Collection<Long> ids) {
+    return InClauseSupport.findAllByIds(em, Member.class, ids, Member::getId,
+        chunk -> queryFactory
+            .selectFrom(member)
+            .where(member.id.in(chunk))
+            .fetch());
+  }
 
   @Override
   public List<MemberTeamDto> search(MemberSearchCondition condition) {
-    return queryFactory
+    ShardedMemberRepository sharded = shardedMemberRepository.getIfAvailable();
+    if (sharded != null) {
+      return sharded.search(condition);
+    }
+    JPAQuery<MemberTeamDto> query = queryFactory
         .select(new QMemberTeamDto(
             member.id.as("memberId"),
             member.username,
@@ -36,18 +57,40 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
             team.name.as("teamName")))
         .from(member)
         .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        )
+        .where(toPredicates(condition));
+    return QueryOptions.LIST.applyTo(query)
+        .fetch();
+  }
+
+  @Override
+  public List<MemberTeamDto> search(MemberSearchCondition condition, long limit) {
+    ShardedMemberRepository sharded = shardedMemberRepository.getIfAvailable();
+    if (sharded != null) {
+      return sharded.search(condition, limit);
+    }
+    JPAQuery<MemberTeamDto> query = queryFactory
+        .select(new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(toPredicates(condition))
+        .orderBy(member.id.asc())
+        .limit(limit);
+    return QueryOptions.LIST.applyTo(query)
         .fetch();
   }
 
   @Override
   public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-    QueryResults<MemberTeamDto> results = queryFactory
+    ShardedMemberRepository sharded = shardedMemberRepository.getIfAvailable();
+    if (sharded != null) {
+      return sharded.searchPageComplex(condition, pageable);
+    }
+    JPAQuery<MemberTeamDto> query = queryFactory
         .select(new QMemberTeamDto(
             member.id.as("memberId"),
             member.username,
@@ -56,14 +99,11 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
             team.name.as("teamName")))
         .from(member)
         .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        )
+        .where(toPredicates(condition))
+        .orderBy(MemberSortKeys.MEMBER.toOrderSpecifiers(pageable.getSort()))
         .offset(pageable.getOffset())
-        .limit(pageable.getPageSize())
+        .limit(pageable.getPageSize());
+    QueryResults<MemberTeamDto> results = QueryOptions.page(pageable).applyTo(query)
         .fetchResults(); // 자동으로 count 쿼리도 실행
 
     List<MemberTeamDto> content = results.getResults();
@@ -74,7 +114,11 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
 
   @Override
   public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-    List<MemberTeamDto> content = queryFactory
+    ShardedMemberRepository sharded = shardedMemberRepository.getIfAvailable();
+    if (sharded != null) {
+      return sharded.searchPageComplex(condition, pageable);
+    }
+    JPAQuery<MemberTeamDto> query = queryFactory
         .select(new QMemberTeamDto(
             member.id.as("memberId"),
             member.username,
@@ -83,14 +127,11 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
             team.name.as("teamName")))
         .from(member)
         .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        )
+        .where(toPredicates(condition))
+        .orderBy(MemberSortKeys.MEMBER.toOrderSpecifiers(pageable.getSort()))
         .offset(pageable.getOffset())
-        .limit(pageable.getPageSize())
+        .limit(pageable.getPageSize());
+    List<MemberTeamDto> content = QueryOptions.page(pageable).applyTo(query)
         .fetch();
 
     // count 쿼리를 분리하여 성능 최적화 가능한 경우 쿼리를 분리할 수도 있다.
@@ -98,35 +139,14 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
         .select(member)
         .from(member)
         .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe())
-        );
+        .where(toPredicates(condition));
 
     /*
     count 쿼리가 생략 가능한 경우 생략해서 처리
     1. 페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때
     2. 마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함
      */
-    return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
-  }
-
-  private BooleanExpression usernameEq(String username) {
-    return hasText(username) ? member.username.eq(username) : null;
-  }
-
-  private BooleanExpression teamNameEq(String teamName) {
-    return hasText(teamName) ? team.name.eq(teamName) : null;
-  }
-
-  private BooleanExpression ageGoe(Integer ageGoe) {
-    return ageGoe != null ? member.age.goe(ageGoe) : null;
-  }
-
-  private BooleanExpression ageLoe(Integer ageLoe) {
-    return ageLoe != null ? member.age.loe(ageLoe) : null;
+    return PageableExecutionUtils.getPage(content, pageable, QueryOptions.COUNT.applyTo(countQuery)::fetchCount);
   }
 
 }
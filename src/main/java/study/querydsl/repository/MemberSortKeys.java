@@ -0,0 +1,38 @@
+package study.querydsl.repository;
+
+import study.querydsl.repository.support.SortWhitelist;
+import study.querydsl.sql.SMember;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberSearch.memberSearch;
+
+/**
+ * 회원 검색 API 에서 허용하는 정렬 키. 모두 인덱스가 있는 컬럼이다.
+ * team.name 은 member 를 기준으로 페이징할 때 조인 뒤에 정렬해야 하므로 원본 테이블에서는 허용하지 않는다.
+ */
+public abstract class MemberSortKeys {
+
+  // PK, idx_member_username, idx_member_age
+  public static final SortWhitelist MEMBER = SortWhitelist.tiebreaker("memberId", member.id)
+      .key("id", member.id)
+      .key("username", member.username)
+      .key("age", member.age)
+      .build();
+
+  // 비정규화된 읽기 모델에서는 팀 이름도 인덱스로 정렬할 수 있다.
+  public static final SortWhitelist MEMBER_SEARCH = SortWhitelist.tiebreaker("memberId", memberSearch.memberId)
+      .key("username", memberSearch.username)
+      .key("teamName", memberSearch.teamName)
+      .build();
+
+  // MemberSqlRepository 용. MEMBER 와 같은 키를 SQL 컬럼에 매핑한다.
+  public static final SortWhitelist MEMBER_SQL = SortWhitelist.tiebreaker("memberId", SMember.member.memberId)
+      .key("id", SMember.member.memberId)
+      .key("username", SMember.member.username)
+      .key("age", SMember.member.age)
+      .build();
+
+  private MemberSortKeys() {
+  }
+
+}
@@ -0,0 +1,135 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.sql.SQLExpressions;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchConditionPredicates;
+import study.querydsl.dto.MemberSearchPredicates;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
+import study.querydsl.repository.support.QueryOptions;
+import study.querydsl.shard.ShardedMemberRepository;
+import study.querydsl.shard.UnsupportedShardReadException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.sql.SMember.member;
+import static study.querydsl.sql.SMemberUsernameGram.memberUsernameGram;
+import static study.querydsl.sql.STeam.team;
+
+/**
+ * MemberTeamQueries 의 querydsl-sql 구현. JPQL 변환, 결과 변환기, 영속성 컨텍스트를 거치지 않고
+ * ResultSet 을 바로 MemberTeamDto 로 옮긴다. 기본 DB 만 조회하므로 샤딩 모드에서는 UnsupportedShardReadException 을 던진다.
+ */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class MemberSqlRepository implements MemberTeamQueries {
+
+  // MemberSearchCondition 의 @QueryPredicate 규칙을 SQL 경로로 옮긴다. 조건 필드가 늘면 여기 경로만 추가하면 된다.
+  private static final MemberSearchConditionPredicates.Mapping SQL_PREDICATES = MemberSearchConditionPredicates.mapping()
+      .path(QMember.member.username, member.username)
+      .path(QTeam.team.name, team.name)
+      .path(QMember.member.age, member.age)
+      .usernameContains(MemberSqlRepository::usernameContains);
+
+  private final SQLQueryFactory sqlQueryFactory;
+  // shard.enabled=true 일 때만 있다.
+  private final ObjectProvider<ShardedMemberRepository> shardedMemberRepository;
+
+  @Override
+  public List<MemberTeamDto> search(MemberSearchCondition condition, long limit) {
+    UnsupportedShardReadException.rejectIfSharded(shardedMemberRepository, "SQL member search");
+    return fetch(contentQuery(condition)
+        .orderBy(member.memberId.asc())
+        .limit(limit), QueryOptions.LIST);
+  }
+
+  @Override
+  public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+    UnsupportedShardReadException.rejectIfSharded(shardedMemberRepository, "SQL member search");
+    List<MemberTeamDto> content = fetch(contentQuery(condition)
+        .orderBy(MemberSortKeys.MEMBER_SQL.toOrderSpecifiers(pageable.getSort()))
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize()), QueryOptions.page(pageable));
+    return new PageImpl<>(content, pageable, countQuery(condition).fetchCount());
+  }
+
+  @Override
+  public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+    UnsupportedShardReadException.rejectIfSharded(shardedMemberRepository, "SQL member search");
+    List<MemberTeamDto> content = fetch(contentQuery(condition)
+        .orderBy(MemberSortKeys.MEMBER_SQL.toOrderSpecifiers(pageable.getSort()))
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize()), QueryOptions.page(pageable));
+    return PageableExecutionUtils.getPage(content, pageable, countQuery(condition)::fetchCount);
+  }
+
+  // 컬럼 순서는 fetch() 에서 읽는 순서와 같아야 한다.
+  private SQLQuery<?> contentQuery(MemberSearchCondition condition) {
+    return sqlQueryFactory
+        .select(member.memberId, member.username, member.age, team.id, team.name)
+        .from(member)
+        .leftJoin(team).on(member.teamId.eq(team.id))
+        .where(predicates(condition));
+  }
+
+  private SQLQuery<?> countQuery(MemberSearchCondition condition) {
+    SQLQuery<?> query = sqlQueryFactory
+        .select(member.memberId)
+        .from(member);
+    query.setStatementOptions(QueryOptions.COUNT.toStatementOptions());
+    // 팀 조건이 없으면 조인하지 않는다.
+    if (hasText(condition.getTeamName())) {
+      query.leftJoin(team).on(member.teamId.eq(team.id));
+    }
+    return query.where(predicates(condition));
+  }
+
+  private List<MemberTeamDto> fetch(SQLQuery<?> query, QueryOptions options) {
+    query.setStatementOptions(options.toStatementOptions());
+    List<MemberTeamDto> content = new ArrayList<>();
+    try (ResultSet rs = query.getResults()) {
+      while (rs.next()) {
+        // 팀이 없는 회원은 team_id 가 null 이다. getLong 은 0 을 주므로 getObject 로 읽는다.
+        content.add(new MemberTeamDto(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getInt(3),
+            rs.getObject(4, Long.class),
+            rs.getString(5)));
+      }
+    } catch (SQLException e) {
+      throw sqlQueryFactory.getConfiguration().translate(e);
+    }
+    return content;
+  }
+
+  private static Predicate[] predicates(MemberSearchCondition condition) {
+    return SQL_PREDICATES.toPredicates(condition);
+  }
+
+  // MemberSearchPredicates.usernameContains 와 같은 trigram 후보 검색을 SQL 테이블로 실행한다.
+  private static BooleanExpression usernameContains(String keyword) {
+    return MemberSearchPredicates.usernameContains(member.memberId, member.username, keyword,
+        () -> SQLExpressions.select(memberUsernameGram.memberId).from(memberUsernameGram),
+        memberUsernameGram.memberId, memberUsernameGram.gram);
+  }
+
+}
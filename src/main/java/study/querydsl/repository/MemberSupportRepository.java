@@ -1,18 +1,27 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.QueryOptions;
 import study.querydsl.repository.support.QuerydslRepositorySupport;
+import study.querydsl.repository.support.SortWhitelist;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.dto.MemberSearchConditionPredicates.toPredicates;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
@@ -23,6 +32,11 @@ public class MemberSupportRepository extends QuerydslRepositorySupport {
     super(Member.class);
   }
 
+  @Override
+  protected SortWhitelist sortWhitelist() {
+    return MemberSortKeys.MEMBER;
+  }
+
   // custom support 를 사용하여 조금 더 편리하게 쓸 수 있음
   public List<Member> basicSelect() {
     return select(member)
@@ -39,14 +53,11 @@ public class MemberSupportRepository extends QuerydslRepositorySupport {
   public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
     JPAQuery<Member> query = selectFrom(member)
         .leftJoin(member.team, team)
-        .where(usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe()));
-    List<Member> content = getQuerydsl().applyPagination(pageable, query)
+        .where(toPredicates(condition));
+    List<Member> content = paginate(pageable, QueryOptions.page(pageable).applyTo(query.clone()))
         .fetch();
     return PageableExecutionUtils.getPage(content, pageable,
-        query::fetchCount);
+        QueryOptions.COUNT.applyTo(query)::fetchCount);
   }
 
   // 위 searchPageByApplyPage 와 동일한 동작. 좀 더 심플해짐
@@ -56,47 +67,100 @@ public class MemberSupportRepository extends QuerydslRepositorySupport {
         contentQuery -> contentQuery
             .selectFrom(member)
             .leftJoin(member.team, team)
-            .where(usernameEq(condition.getUsername()),
-                teamNameEq(condition.getTeamName()),
-                ageGoe(condition.getAgeGoe()),
-                ageLoe(condition.getAgeLoe())));
+            .where(toPredicates(condition)));
   }
 
-  // count query 분리
-  public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
+  // fetch plan(entity graph) 적용. 컬렉션이 있는 plan 이면 id 로 먼저 페이징한다.
+  public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable, String fetchPlan) {
     return applyPagination(
         pageable,
-        contentQuery -> contentQuery
-            .selectFrom(member)
-            .leftJoin(member.team, team)
-            .where(usernameEq(condition.getUsername()),
-                teamNameEq(condition.getTeamName()),
-                ageGoe(condition.getAgeGoe()),
-                ageLoe(condition.getAgeLoe())),
-        countQuery -> countQuery
+        fetchPlan,
+        contentQuery -> joinTeamIfFiltered(contentQuery
             .selectFrom(member)
-            .leftJoin(member.team, team)
-            .where(usernameEq(condition.getUsername()),
-                teamNameEq(condition.getTeamName()),
-                ageGoe(condition.getAgeGoe()),
-                ageLoe(condition.getAgeLoe()))
-    );
+            .where(toPredicates(condition)), condition));
+  }
+
+  // fetch plan(entity graph) 을 적용한 목록 조회. 컬렉션이 있는 plan 이면 id 를 먼저 조회한다.
+  public List<Member> searchMember(MemberSearchCondition condition, String fetchPlan) {
+    return fetch(joinTeamIfFiltered(selectFrom(member)
+        .where(toPredicates(condition)), condition), fetchPlan);
+  }
+
+  // 읽기 전용. 화면 조회처럼 결과 엔티티를 수정하지 않는 경우 스냅샷/flush 비용을 줄인다.
+  @Transactional(readOnly = true)
+  public Page<Member> searchPageReadOnly(MemberSearchCondition condition, Pageable pageable) {
+    JPAQuery<Member> query = selectFromReadOnly(member)
+        .leftJoin(member.team, team)
+        .where(toPredicates(condition));
+    List<Member> content = paginate(pageable, QueryOptions.page(pageable).applyTo(query.clone()))
+        .fetch();
+    return PageableExecutionUtils.getPage(content, pageable,
+        QueryOptions.COUNT.applyTo(query)::fetchCount);
   }
 
-  private BooleanExpression usernameEq(String username) {
-    return StringUtils.hasText(username) ? member.username.eq(username) : null;
+  // 대량 DTO 조회를 리스트로 모으지 않고 처리한다. fetch size, 커서 여부는 options 로 정한다. (기본 QueryOptions.STREAM)
+  @Transactional(readOnly = true)
+  public long streamSearch(MemberSearchCondition condition, QueryOptions options, Consumer<MemberTeamDto> action) {
+    JPAQuery<MemberTeamDto> query = select(new QMemberTeamDto(
+        member.id.as("memberId"),
+        member.username,
+        member.age,
+        team.id.as("teamId"),
+        team.name.as("teamName")))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(toPredicates(condition))
+        .orderBy(member.id.asc());
+    return stream(query, options, action);
   }
 
-  private BooleanExpression teamNameEq(String teamName) {
-    return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+  /**
+   * 대량 조회를 열 단위로 받는다. 커서로 읽은 Tuple 을 바로 배열에 옮기므로 MemberTeamDto 가 만들어지지 않는다.
+   * 회원명은 행마다 문자열이 남으므로 withUsernames 일 때만 조회한다.
+   */
+  @Transactional(readOnly = true)
+  public MemberTeamColumns searchColumns(MemberSearchCondition condition, boolean withUsernames) {
+    MemberTeamColumns.Builder columns = MemberTeamColumns.builder(withUsernames);
+    // 회원명은 필요할 때만 마지막 열로 붙인다.
+    Expression<?>[] projection = withUsernames
+        ? new Expression<?>[]{member.id, member.age, team.id, team.name, member.username}
+        : new Expression<?>[]{member.id, member.age, team.id, team.name};
+    JPAQuery<Tuple> query = getQueryFactory()
+        .select(projection)
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(toPredicates(condition))
+        .orderBy(member.id.asc());
+    stream(query, QueryOptions.STREAM, row -> columns.add(
+        row.get(0, Long.class),
+        withUsernames ? row.get(4, String.class) : null,
+        row.get(1, Integer.class),
+        row.get(2, Long.class),
+        row.get(3, String.class)));
+    return columns.build();
   }
 
-  private BooleanExpression ageGoe(Integer ageGoe) {
-    return ageGoe != null ? member.age.goe(ageGoe) : null;
+  // plan 이 team 을 load graph 로 가져오므로 일반 join 은 team 조건이 있을 때만 건다. 둘 다 있으면 team 을 두 번 join 한다.
+  private static <T> JPAQuery<T> joinTeamIfFiltered(JPAQuery<T> query, MemberSearchCondition condition) {
+    if (hasText(condition.getTeamName())) {
+      query.leftJoin(member.team, team);
+    }
+    return query;
   }
 
-  private BooleanExpression ageLoe(Integer ageLoe) {
-    return ageLoe != null ? member.age.loe(ageLoe) : null;
+  // count query 분리
+  public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
+    return applyPagination(
+        pageable,
+        contentQuery -> contentQuery
+            .selectFrom(member)
+            .leftJoin(member.team, team)
+            .where(toPredicates(condition)),
+        countQuery -> countQuery
+            .selectFrom(member)
+            .leftJoin(member.team, team)
+            .where(toPredicates(condition))
+    );
   }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+
+/**
+ * 회원 검색 API(v1 ~ v3) 가 쓰는 DTO 조회. JPA(MemberRepository) 와 SQL(MemberSqlRepository) 구현이 있다.
+ */
+public interface MemberTeamQueries {
+  // 결과 건수 상한. 잘리는 경우에도 항상 같은 앞부분이 나오도록 id 순으로 정렬한다.
+  List<MemberTeamDto> search(MemberSearchCondition condition, long limit);
+  Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
+  Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+}
@@ -0,0 +1,94 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.sql.SQLExpressions;
+import com.querydsl.sql.SQLQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.shard.ShardedMemberRepository;
+import study.querydsl.shard.UnsupportedShardReadException;
+import study.querydsl.sql.SMember;
+import study.querydsl.sql.STeam;
+
+import java.util.List;
+
+/**
+ * 윈도우 함수로 팀 단위 비교를 한 번의 스캔으로 처리한다.
+ * JPQL 에는 over() 가 없어서 상관 서브쿼리로 풀면 회원 행마다 서브쿼리가 다시 실행된다. (QueryDSLBasicTest.subQuery 참고)
+ */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class MemberWindowRepository {
+
+  private static final SMember m = new SMember("m");
+  private static final STeam t = new STeam("t");
+
+  // 서브쿼리 결과를 바깥 쿼리에서 참조하는 별칭
+  private static final PathBuilder<Object> ranked = new PathBuilder<>(Object.class, "ranked");
+  private static final NumberPath<Long> rankedMemberId = ranked.getNumber("member_id", Long.class);
+  private static final NumberPath<Integer> rankedAge = ranked.getNumber("age", Integer.class);
+  private static final NumberPath<Long> rankedTeamId = ranked.getNumber("team_id", Long.class);
+
+  private final SQLQueryFactory sqlQueryFactory;
+  // shard.enabled=true 일 때만 있다. SQL 쿼리는 기본 DataSource 만 읽는다.
+  private final ObjectProvider<ShardedMemberRepository> shardedMemberRepository;
+
+  /**
+   * 팀별 나이 상위 k 명. 나이가 같으면 id 순이다. 팀이 없는 회원은 제외한다.
+   */
+  public List<MemberTeamDto> findTopByAgePerTeam(int k) {
+    UnsupportedShardReadException.rejectIfSharded(shardedMemberRepository, "Member window query");
+    return sqlQueryFactory
+        .select(new QMemberTeamDto(
+            rankedMemberId,
+            ranked.getString("username"),
+            rankedAge,
+            t.id,
+            t.name))
+        .from(SQLExpressions
+            .select(m.memberId, m.username, m.age, m.teamId,
+                SQLExpressions.rowNumber().over()
+                    .partitionBy(m.teamId)
+                    .orderBy(m.age.desc(), m.memberId.asc())
+                    .as("rn"))
+            .from(m)
+            .where(m.teamId.isNotNull()), ranked)
+        .join(t).on(t.id.eq(rankedTeamId))
+        .where(ranked.getNumber("rn", Long.class).loe(k))
+        .orderBy(t.id.asc(), rankedAge.desc(), rankedMemberId.asc())
+        .fetch();
+  }
+
+  /**
+   * 소속 팀 평균 나이보다 나이가 많은 회원. 팀이 없는 회원은 제외한다.
+   */
+  public List<MemberTeamDto> findAboveTeamAverage() {
+    UnsupportedShardReadException.rejectIfSharded(shardedMemberRepository, "Member window query");
+    return sqlQueryFactory
+        .select(new QMemberTeamDto(
+            rankedMemberId,
+            ranked.getString("username"),
+            rankedAge,
+            t.id,
+            t.name))
+        .from(SQLExpressions
+            .select(m.memberId, m.username, m.age, m.teamId,
+                // 정수 평균은 잘리므로 double 로 계산한다.
+                SQLExpressions.avg(m.age.castToNum(Double.class)).over()
+                    .partitionBy(m.teamId)
+                    .as("team_avg"))
+            .from(m)
+            .where(m.teamId.isNotNull()), ranked)
+        .join(t).on(t.id.eq(rankedTeamId))
+        .where(rankedAge.gt(ranked.getNumber("team_avg", Double.class)))
+        .orderBy(t.id.asc(), rankedMemberId.asc())
+        .fetch();
+  }
+
+}
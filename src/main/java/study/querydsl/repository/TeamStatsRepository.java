@@ -0,0 +1,44 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.QTeamStatsDto;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.shard.ShardedMemberRepository;
+import study.querydsl.shard.UnsupportedShardReadException;
+
+import java.util.List;
+
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.entity.QTeamStats.teamStats;
+
+/**
+ * 팀별 집계 조회. member 를 group by 하지 않고 team_stats 만 읽으므로 팀 수에 비례한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TeamStatsRepository {
+
+  private final JPAQueryFactory queryFactory;
+  // 샤드에는 team_stats 읽기 모델이 없다.
+  private final ObjectProvider<ShardedMemberRepository> shardedMemberRepository;
+
+  public List<TeamStatsDto> findAll() {
+    UnsupportedShardReadException.rejectIfSharded(shardedMemberRepository, "Team stats");
+    return queryFactory
+        .select(new QTeamStatsDto(
+            team.id,
+            team.name,
+            teamStats.memberCount,
+            teamStats.ageSum,
+            teamStats.minAge,
+            teamStats.maxAge))
+        .from(team)
+        .leftJoin(teamStats).on(teamStats.teamId.eq(team.id))
+        .orderBy(team.name.asc(), team.id.asc())
+        .fetch();
+  }
+
+}
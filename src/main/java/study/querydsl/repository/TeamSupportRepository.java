@@ -0,0 +1,76 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.QuerydslRepositorySupport;
+import study.querydsl.repository.support.SortWhitelist;
+import study.querydsl.shard.ShardedMemberRepository;
+import study.querydsl.shard.UnsupportedShardReadException;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 + 회원 목록 화면용 조회. team.members 를 fetch join 하므로 팀 id 로 먼저 페이징한다.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class TeamSupportRepository extends QuerydslRepositorySupport {
+
+  // PK, idx_team_name
+  private static final SortWhitelist TEAM = SortWhitelist.tiebreaker("teamId", team.id)
+      .key("id", team.id)
+      .key("teamName", team.name)
+      .build();
+
+  // shard.enabled=true 일 때만 있다. 팀 목록 페이징은 샤드를 합치지 않는다.
+  private final ObjectProvider<ShardedMemberRepository> shardedMemberRepository;
+
+  public TeamSupportRepository(ObjectProvider<ShardedMemberRepository> shardedMemberRepository) {
+    super(Team.class);
+    this.shardedMemberRepository = shardedMemberRepository;
+  }
+
+  @Override
+  protected SortWhitelist sortWhitelist() {
+    return TEAM;
+  }
+
+  public Page<Team> findWithMembers(String teamNameStartsWith, Pageable pageable) {
+    UnsupportedShardReadException.rejectIfSharded(shardedMemberRepository, "Team member paging");
+    return applyPaginationByIds(
+        pageable,
+        query -> query
+            .selectFrom(team)
+            .where(teamNameStartsWith(teamNameStartsWith)),
+        query -> query
+            .leftJoin(team.members, member).fetchJoin()
+            .orderBy(member.id.asc()));
+  }
+
+  // 다음 페이지는 마지막 팀의 id 를 afterTeamId 로 넘긴다.
+  public Slice<Team> findWithMembersAfter(String teamNameStartsWith, Long afterTeamId, int size) {
+    UnsupportedShardReadException.rejectIfSharded(shardedMemberRepository, "Team member paging");
+    return applyCursorByIds(
+        afterTeamId,
+        size,
+        query -> query
+            .selectFrom(team)
+            .where(teamNameStartsWith(teamNameStartsWith)),
+        query -> query
+            .leftJoin(team.members, member).fetchJoin()
+            .orderBy(member.id.asc()));
+  }
+
+  private BooleanExpression teamNameStartsWith(String teamNameStartsWith) {
+    return hasText(teamNameStartsWith) ? team.name.startsWith(teamNameStartsWith) : null;
+  }
+
+}
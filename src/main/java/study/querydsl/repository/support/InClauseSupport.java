@@ -0,0 +1,125 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * IN 절 파라미터 처리 유틸.
+ * 리스트 크기가 달라질 때마다 새로운 쿼리 플랜이 생기지 않도록 2의 제곱수로 패딩하고,
+ * 드라이버 파라미터 한도를 넘지 않도록 큰 리스트는 청크로 나눈다.
+ */
+public abstract class InClauseSupport {
+
+  // 2의 제곱수로 맞춰 두면 꽉 찬 청크는 패딩이 필요 없다.
+  public static final int DEFAULT_CHUNK_SIZE = 512;
+
+  private InClauseSupport() {
+  }
+
+  /**
+   * 리스트를 다음 2의 제곱수 크기로 맞춘다. 빈 자리는 마지막 값으로 채우므로 결과는 동일하다.
+   */
+  public static <T> List<T> pad(List<T> values) {
+    int size = values.size();
+    if (size <= 1) {
+      return values;
+    }
+    int paddedSize = Integer.highestOneBit(size - 1) << 1;
+    if (paddedSize == size) {
+      return values;
+    }
+    List<T> padded = new ArrayList<>(paddedSize);
+    padded.addAll(values);
+    T last = values.get(size - 1);
+    while (padded.size() < paddedSize) {
+      padded.add(last);
+    }
+    return padded;
+  }
+
+  public static <T> List<List<T>> partition(List<T> values, int chunkSize) {
+    Assert.isTrue(chunkSize > 0, "Chunk size must be positive!");
+    if (values.size() <= chunkSize) {
+      return Collections.singletonList(values);
+    }
+    List<List<T>> chunks = new ArrayList<>((values.size() + chunkSize - 1) / chunkSize);
+    for (int from = 0; from < values.size(); from += chunkSize) {
+      chunks.add(values.subList(from, Math.min(from + chunkSize, values.size())));
+    }
+    return chunks;
+  }
+
+  /**
+   * id 목록으로 엔티티를 조회한다.
+   * 이미 영속성 컨텍스트에 있는 엔티티는 쿼리하지 않고, 나머지는 청크 단위로 패딩해서 loader 로 조회한다.
+   * 결과는 요청한 id 순서를 따르며 존재하지 않는 id 는 빠진다.
+   */
+  public static <T, ID> List<T> findAllByIds(EntityManager em, Class<T> entityClass, Collection<ID> ids,
+      Function<T, ID> idGetter, Function<List<ID>, List<T>> loader) {
+    if (ids == null || ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<ID> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+    Map<ID, T> found = findManaged(em, entityClass, distinctIds);
+
+    List<ID> missingIds = new ArrayList<>(distinctIds.size() - found.size());
+    for (ID id : distinctIds) {
+      if (!found.containsKey(id)) {
+        missingIds.add(id);
+      }
+    }
+    // 같은 EntityManager 를 여러 스레드에서 쓸 수 없으므로 청크는 순서대로 실행한다.
+    if (!missingIds.isEmpty()) {
+      for (List<ID> chunk : partition(missingIds, DEFAULT_CHUNK_SIZE)) {
+        for (T entity : loader.apply(pad(chunk))) {
+          found.put(idGetter.apply(entity), entity);
+        }
+      }
+    }
+
+    List<T> result = new ArrayList<>(found.size());
+    for (ID id : distinctIds) {
+      T entity = found.get(id);
+      if (entity != null) {
+        result.add(entity);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 현재 트랜잭션의 영속성 컨텍스트에 이미 로딩된 엔티티를 DB 조회 없이 찾는다.
+   */
+  public static <T, ID> Map<ID, T> findManaged(EntityManager em, Class<T> entityClass, Collection<ID> ids) {
+    Map<ID, T> managed = new HashMap<>();
+    // 트랜잭션 밖에서는 공유 EntityManager 의 영속성 컨텍스트가 호출마다 새로 만들어진다.
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      return managed;
+    }
+    SessionImplementor session = em.unwrap(SessionImplementor.class);
+    EntityPersister persister = session.getFactory().getMetamodel().entityPersister(entityClass);
+    PersistenceContext persistenceContext = session.getPersistenceContext();
+    for (ID id : ids) {
+      Object entity = persistenceContext.getEntity(session.generateEntityKey((Serializable) id, persister));
+      if (entity != null) {
+        managed.put(id, entityClass.cast(entity));
+      }
+    }
+    return managed;
+  }
+
+}
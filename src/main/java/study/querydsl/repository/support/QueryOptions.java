@@ -0,0 +1,94 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.sql.StatementOptions;
+import lombok.Builder;
+import lombok.Getter;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+
+/**
+ * 쿼리 한 건의 JDBC 실행 옵션. null 인 값은 드라이버 기본값을 쓴다.
+ * <ul>
+ * <li>fetchSize: 한 번에 가져오는 행 수 (Statement.setFetchSize)</li>
+ * <li>maxRows: 결과 건수 상한. limit 이 없는 쿼리에만 limit 으로 붙인다.</li>
+ * <li>timeout: 쿼리 타임아웃 (Statement.setQueryTimeout)</li>
+ * <li>forwardOnly: stream 에서 결과를 모두 읽어 두지 않고 forward-only 커서로 한 행씩 읽는다.</li>
+ * </ul>
+ */
+@Getter
+@Builder(toBuilder = true)
+public class QueryOptions {
+
+  // 결과 건수가 작은 단건/소량 조회
+  public static final QueryOptions LOOKUP = QueryOptions.builder()
+      .fetchSize(16)
+      .timeout(Duration.ofSeconds(3))
+      .build();
+
+  // 페이지 없는 목록 조회. 상한은 호출하는 쪽에서 limit 으로 건다.
+  public static final QueryOptions LIST = QueryOptions.builder()
+      .fetchSize(500)
+      .timeout(Duration.ofSeconds(10))
+      .build();
+
+  // count 쿼리. 한 행이므로 타임아웃만 건다.
+  public static final QueryOptions COUNT = QueryOptions.builder()
+      .timeout(Duration.ofSeconds(5))
+      .build();
+
+  // 대량 순차 처리 (내보내기, 배치). 메모리에 모으지 않고 커서로 흘려 보낸다.
+  public static final QueryOptions STREAM = QueryOptions.builder()
+      .fetchSize(1000)
+      .timeout(Duration.ofMinutes(10))
+      .forwardOnly(true)
+      .build();
+
+  private final Integer fetchSize;
+  private final Integer maxRows;
+  private final Duration timeout;
+  private final boolean forwardOnly;
+
+  /**
+   * 페이지 조회. 한 페이지를 한 번에 가져오도록 fetch size 를 페이지 크기에 맞춘다.
+   */
+  public static QueryOptions page(Pageable pageable) {
+    return QueryOptions.builder()
+        .fetchSize(pageable.isPaged() ? pageable.getPageSize() : LIST.fetchSize)
+        .timeout(Duration.ofSeconds(5))
+        .build();
+  }
+
+  public <T> JPAQuery<T> applyTo(JPAQuery<T> query) {
+    if (fetchSize != null) {
+      query.setHint(QueryHints.FETCH_SIZE, fetchSize);
+    }
+    if (timeout != null) {
+      query.setHint(QueryHints.TIMEOUT_JPA, (int) timeout.toMillis());
+    }
+    if (maxRows != null && query.getMetadata().getModifiers().getLimit() == null) {
+      query.limit(maxRows);
+    }
+    return query;
+  }
+
+  /**
+   * querydsl-sql 쿼리용 (SQLQuery.setStatementOptions)
+   */
+  public StatementOptions toStatementOptions() {
+    StatementOptions.Builder builder = StatementOptions.builder();
+    if (fetchSize != null) {
+      builder.setFetchSize(fetchSize);
+    }
+    if (maxRows != null) {
+      builder.setMaxRows(maxRows);
+    }
+    if (timeout != null) {
+      builder.setQueryTimeout((int) Math.max(1, timeout.getSeconds()));
+    }
+    return builder.build();
+  }
+
+}
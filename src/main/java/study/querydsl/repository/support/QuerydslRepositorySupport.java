@@ -1,13 +1,25 @@
 package study.querydsl.repository.support;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.FlushMode;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.data.jpa.repository.support.Querydsl;
@@ -17,14 +29,28 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
 import javax.annotation.PostConstruct;
+import javax.persistence.AttributeNode;
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.Subgraph;
+import javax.persistence.metamodel.ManagedType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 @Repository
 public abstract class QuerydslRepositorySupport {
+  private static final String LOAD_GRAPH_HINT = "javax.persistence.loadgraph";
+
   private final Class domainClass;
-  private Querydsl querydsl;
+  private EntityPath entityPath;
+  private PathBuilder<?> builder;
+  private volatile SimpleExpression<Object> idPath;
+  private volatile Querydsl querydsl;
   private EntityManager entityManager;
   private JPAQueryFactory queryFactory;
 
@@ -33,23 +59,23 @@ public abstract class QuerydslRepositorySupport {
     this.domainClass = domainClass;
   }
 
+  /**
+   * 메타모델이 필요한 값(id 경로, Querydsl)은 처음 쓸 때 만든다.
+   * 빈 생성 시점에 메타모델을 읽으면 EntityManagerFactory 를 백그라운드에서 만드는 동안(deferred bootstrap) 기동이 여기서 막힌다.
+   */
   @Autowired
   public void setEntityManager(EntityManager entityManager) {
     Assert.notNull(entityManager, "EntityManager must not be null!");
-    JpaEntityInformation entityInformation =
-        JpaEntityInformationSupport.getEntityInformation(domainClass, entityManager);
-    SimpleEntityPathResolver resolver = SimpleEntityPathResolver.INSTANCE;
-    EntityPath path = resolver.createPath(entityInformation.getJavaType());
+    EntityPath path = SimpleEntityPathResolver.INSTANCE.createPath(domainClass);
     this.entityManager = entityManager;
-    this.querydsl = new Querydsl(entityManager, new
-        PathBuilder<>(path.getType(), path.getMetadata()));
+    this.entityPath = path;
+    this.builder = new PathBuilder<>(path.getType(), path.getMetadata());
     this.queryFactory = new JPAQueryFactory(entityManager);
   }
 
   @PostConstruct
   public void validate() {
     Assert.notNull(entityManager, "EntityManager must not be null!");
-    Assert.notNull(querydsl, "Querydsl must not be null!");
     Assert.notNull(queryFactory, "QueryFactory must not be null!");
   }
 
@@ -58,9 +84,21 @@ public abstract class QuerydslRepositorySupport {
   }
 
   protected Querydsl getQuerydsl() {
+    if (querydsl == null) {
+      querydsl = new Querydsl(entityManager, builder);
+    }
     return querydsl;
   }
 
+  private SimpleExpression<Object> idPath() {
+    if (idPath == null) {
+      JpaEntityInformation entityInformation =
+          JpaEntityInformationSupport.getEntityInformation(domainClass, entityManager);
+      idPath = builder.get(entityInformation.getIdAttribute().getName());
+    }
+    return idPath;
+  }
+
   protected EntityManager getEntityManager() {
     return entityManager;
   }
@@ -73,23 +111,231 @@ public abstract class QuerydslRepositorySupport {
     return getQueryFactory().selectFrom(from);
   }
 
+  protected <T> JPAQuery<T> selectReadOnly(Expression<T> expr) {
+    return readOnly(select(expr));
+  }
+
+  protected <T> JPAQuery<T> selectFromReadOnly(EntityPath<T> from) {
+    return readOnly(selectFrom(from));
+  }
+
+  /**
+   * 읽기 전용 조회. 조회한 엔티티의 dirty checking 스냅샷을 만들지 않고, 조회 전에 flush 하지 않는다.
+   * 변경 감지가 안 되므로 결과 엔티티를 수정해도 DB 에 반영되지 않는다.
+   */
+  protected <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+    query.setHint(QueryHints.READ_ONLY, true);
+    query.setHint(QueryHints.FLUSH_MODE, FlushMode.MANUAL);
+    return query;
+  }
+
   protected <T> Page<T> applyPagination(Pageable pageable,
       Function<JPAQueryFactory, JPAQuery> contentQuery) {
     JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-    List<T> content = getQuerydsl().applyPagination(pageable,
-        jpaQuery).fetch();
+    List<T> content = paginate(pageable,
+        QueryOptions.page(pageable).applyTo(jpaQuery.clone())).fetch();
     return PageableExecutionUtils.getPage(content, pageable,
-        jpaQuery::fetchCount);
+        QueryOptions.COUNT.applyTo(jpaQuery)::fetchCount);
   }
 
   protected <T> Page<T> applyPagination(Pageable pageable,
       Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
     JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-    List<T> content = getQuerydsl().applyPagination(pageable,
-        jpaContentQuery).fetch();
-    JPAQuery countResult = countQuery.apply(getQueryFactory());
+    List<T> content = paginate(pageable,
+        QueryOptions.page(pageable).applyTo(jpaContentQuery)).fetch();
+    JPAQuery countResult = QueryOptions.COUNT.applyTo(countQuery.apply(getQueryFactory()));
     return PageableExecutionUtils.getPage(content, pageable,
         countResult::fetchCount);
   }
 
-}
\ No newline at end of file
+  /**
+   * 결과를 리스트로 모으지 않고 한 행씩 action 에 넘긴다. 처리한 건수를 반환한다.
+   * options.forwardOnly 이면 forward-only 커서(ScrollMode.FORWARD_ONLY)로 fetch size 만큼씩 읽고, 아니면 fetch() 결과를 돈다.
+   * 엔티티는 영속성 컨텍스트에 계속 쌓이므로 대량이면 DTO 프로젝션이나 readOnly 로 조회한다.
+   */
+  protected <T> long stream(JPAQuery<T> query, QueryOptions options, Consumer<? super T> action) {
+    options.applyTo(query);
+    long count = 0;
+    if (!options.isForwardOnly()) {
+      for (T row : query.fetch()) {
+        action.accept(row);
+        count++;
+      }
+      return count;
+    }
+    try (CloseableIterator<T> rows = query.iterate()) {
+      while (rows.hasNext()) {
+        action.accept(rows.next());
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * offset/limit 과 정렬을 적용한다. sortWhitelist() 가 있으면 허용된 키로만 정렬하고 id 를 마지막 정렬 키로 붙인다.
+   * 없으면 Spring Data Querydsl 처럼 엔티티의 아무 속성으로나 정렬한다.
+   */
+  protected <T> JPQLQuery<T> paginate(Pageable pageable, JPQLQuery<T> query) {
+    SortWhitelist whitelist = sortWhitelist();
+    if (whitelist == null) {
+      return getQuerydsl().applyPagination(pageable, query);
+    }
+    if (pageable.isPaged()) {
+      query.offset(pageable.getOffset());
+      query.limit(pageable.getPageSize());
+    }
+    return query.orderBy(whitelist.toOrderSpecifiers(pageable.getSort()));
+  }
+
+  /**
+   * 정렬 허용 목록. 하위 클래스에서 재정의하면 paginate/applyPagination 이 임의 속성 정렬을 거부한다.
+   */
+  protected SortWhitelist sortWhitelist() {
+    return null;
+  }
+
+  /**
+   * 이름으로 지정한 entity graph 를 load graph 힌트로 적용한다. 그래프에 없는 속성은 매핑된 fetch 전략을 따른다.
+   */
+  protected <T> JPAQuery<T> applyFetchPlan(JPAQuery<T> query, String entityGraph) {
+    if (entityGraph == null) {
+      return query;
+    }
+    query.setHint(LOAD_GRAPH_HINT, getEntityManager().getEntityGraph(entityGraph));
+    return query;
+  }
+
+  /**
+   * fetch plan 을 적용한 페이징.
+   * 그래프에 컬렉션이 있으면 fetch join 때문에 DB 에서 limit 를 걸 수 없으므로 (HHH000104)
+   * 먼저 해당 페이지의 id 만 조회하고, 그 id 들로 그래프를 적용해 다시 조회한다.
+   */
+  protected <T> Page<T> applyPagination(Pageable pageable, String entityGraph,
+      Function<JPAQueryFactory, JPAQuery> contentQuery) {
+    JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+    QueryOptions options = QueryOptions.page(pageable);
+    List<T> content;
+    if (fetchesCollection(entityGraph)) {
+      List<Object> ids = paginate(pageable,
+          options.applyTo(jpaQuery.clone().select(idPath()))).fetch();
+      content = fetchByIds(ids, entityGraph);
+    } else {
+      content = paginate(pageable,
+          options.applyTo(applyFetchPlan(jpaQuery.clone(), entityGraph))).fetch();
+    }
+    return PageableExecutionUtils.getPage(content, pageable,
+        QueryOptions.COUNT.applyTo(jpaQuery)::fetchCount);
+  }
+
+  /**
+   * fetch plan 을 적용한 목록 조회. 그래프에 컬렉션이 있으면 id 를 먼저 조회하고 그 id 들로 그래프를 적용해 다시 조회하므로
+   * 컬렉션 fetch 로 루트가 중복되지 않는다.
+   */
+  protected <T> List<T> fetch(JPAQuery<T> query, String entityGraph) {
+    if (fetchesCollection(entityGraph)) {
+      List<Object> ids = query.clone().select(idPath()).fetch();
+      return fetchByIds(ids, entityGraph);
+    }
+    return applyFetchPlan(query, entityGraph).fetch();
+  }
+
+  /**
+   * id 목록 순서대로 엔티티를 조회한다. 컬렉션 fetch 로 중복된 루트는 하나로 합친다.
+   */
+  protected <T> List<T> fetchByIds(List<?> ids, String entityGraph) {
+    return fetchByIds(ids, query -> applyFetchPlan(query, entityGraph));
+  }
+
+  /**
+   * id 목록 순서대로 엔티티를 조회한다. fetchJoins 에서 컬렉션을 fetch join 해도 루트는 id 당 하나만 남는다.
+   */
+  @SuppressWarnings("unchecked")
+  protected <T> List<T> fetchByIds(List<?> ids, Function<JPAQuery<T>, JPAQuery<T>> fetchJoins) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    List<T> rows = fetchJoins.apply(getQueryFactory()
+        .selectFrom((EntityPath<T>) entityPath)
+        .where(idPath().in(ids)))
+        .fetch();
+
+    PersistenceUnitUtil unitUtil = getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil();
+    Map<Object, T> byId = new LinkedHashMap<>();
+    for (T row : rows) {
+      byId.putIfAbsent(unitUtil.getIdentifier(row), row);
+    }
+    List<T> content = new ArrayList<>(byId.size());
+    for (Object id : ids) {
+      T entity = byId.get(id);
+      if (entity != null) {
+        content.add(entity);
+      }
+    }
+    return content;
+  }
+
+  /**
+   * 컬렉션 fetch join 페이징. fetch join 한 쿼리에 offset/limit 를 걸면 Hibernate 가 전체를 읽고 메모리에서 자른다. (HHH000104)
+   * <ol>
+   * <li>rootQuery 에서 루트 id 만 골라 DB 에서 페이징한다.</li>
+   * <li>그 id 들로 fetchJoins 를 적용해 다시 조회하고 1 의 순서대로 돌려준다.</li>
+   * </ol>
+   * rootQuery 는 fetch join 없이 루트가 한 번씩만 나오도록 작성해야 한다. (컬렉션 조건은 exists 서브쿼리로)
+   */
+  protected <T> Page<T> applyPaginationByIds(Pageable pageable,
+      Function<JPAQueryFactory, JPAQuery<T>> rootQuery, Function<JPAQuery<T>, JPAQuery<T>> fetchJoins) {
+    JPAQuery<T> jpaQuery = rootQuery.apply(getQueryFactory());
+    List<Object> ids = paginate(pageable,
+        QueryOptions.page(pageable).applyTo(jpaQuery.clone().select(idPath()))).fetch();
+    List<T> content = fetchByIds(ids, fetchJoins);
+    return PageableExecutionUtils.getPage(content, pageable, QueryOptions.COUNT.applyTo(jpaQuery)::fetchCount);
+  }
+
+  /**
+   * applyPaginationByIds 의 커서 버전. offset 대신 id 가 afterId 보다 큰 루트를 size 건 가져오므로 뒤 페이지도 비용이 같다.
+   * 다음 커서는 마지막 원소의 id 다.
+   */
+  protected <T> Slice<T> applyCursorByIds(Object afterId, int size,
+      Function<JPAQueryFactory, JPAQuery<T>> rootQuery, Function<JPAQuery<T>, JPAQuery<T>> fetchJoins) {
+    JPAQuery<Object> idQuery = rootQuery.apply(getQueryFactory()).select(idPath());
+    if (afterId != null) {
+      idQuery.where(Expressions.booleanOperation(Ops.GT, idPath(), Expressions.constant(afterId)));
+    }
+    List<Object> ids = idQuery
+        .orderBy(new OrderSpecifier(Order.ASC, idPath()))
+        .limit(size + 1L)
+        .fetch();
+    boolean hasNext = ids.size() > size;
+    if (hasNext) {
+      ids = ids.subList(0, size);
+    }
+    return new SliceImpl<>(fetchByIds(ids, fetchJoins), PageRequest.of(0, size), hasNext);
+  }
+
+  private boolean fetchesCollection(String entityGraph) {
+    return entityGraph != null && containsCollection(getEntityManager().getEntityGraph(entityGraph));
+  }
+
+  private boolean containsCollection(EntityGraph<?> graph) {
+    return containsCollection(getEntityManager().getMetamodel().managedType(domainClass),
+        graph.getAttributeNodes());
+  }
+
+  private boolean containsCollection(ManagedType<?> type, List<AttributeNode<?>> nodes) {
+    for (AttributeNode<?> node : nodes) {
+      if (type.getAttribute(node.getAttributeName()).isCollection()) {
+        return true;
+      }
+      for (Object subgraph : node.getSubgraphs().values()) {
+        Subgraph<?> sub = (Subgraph<?>) subgraph;
+        ManagedType<?> subType = getEntityManager().getMetamodel().managedType(sub.getClassType());
+        if (containsCollection(subType, sub.getAttributeNodes())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,93 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pageable 의 Sort 를 OrderSpecifier 로 바꾼다. 인덱스가 있는 컬럼만 키로 등록해서 임의 속성 정렬로 인한 전체 정렬(filesort)을 막는다.
+ * 결과 순서가 항상 같도록 유일한 tiebreaker(id) 를 마지막 정렬 방향과 같은 방향으로 붙인다.
+ * 보조 인덱스는 (컬럼, PK) 순서로 저장되므로 (key, id) 정렬은 인덱스 순서 그대로 읽고 limit 에서 멈출 수 있다.
+ */
+public class SortWhitelist {
+
+  private final Map<String, ComparableExpressionBase<?>> keys;
+  private final ComparableExpressionBase<?> tiebreaker;
+
+  private SortWhitelist(Map<String, ComparableExpressionBase<?>> keys, ComparableExpressionBase<?> tiebreaker) {
+    this.keys = Collections.unmodifiableMap(keys);
+    this.tiebreaker = tiebreaker;
+  }
+
+  public static Builder tiebreaker(String property, ComparableExpressionBase<?> tiebreaker) {
+    return new Builder(property, tiebreaker);
+  }
+
+  public Set<String> keys() {
+    return keys.keySet();
+  }
+
+  /**
+   * @throws UnsupportedSortException 허용 목록에 없는 속성이나 대소문자 무시 정렬
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public OrderSpecifier<?>[] toOrderSpecifiers(Sort sort) {
+    List<OrderSpecifier<?>> orders = new ArrayList<>();
+    Order lastDirection = Order.ASC;
+    boolean hasTiebreaker = false;
+    for (Sort.Order order : sort) {
+      ComparableExpressionBase<?> expression = keys.get(order.getProperty());
+      if (expression == null || order.isIgnoreCase()) {
+        throw new UnsupportedSortException(order.getProperty(), keys());
+      }
+      lastDirection = order.isAscending() ? Order.ASC : Order.DESC;
+      orders.add(new OrderSpecifier(lastDirection, expression, nullHandling(order.getNullHandling())));
+      hasTiebreaker |= expression.equals(tiebreaker);
+    }
+    if (!hasTiebreaker) {
+      orders.add(new OrderSpecifier(lastDirection, tiebreaker));
+    }
+    return orders.toArray(new OrderSpecifier[0]);
+  }
+
+  private static OrderSpecifier.NullHandling nullHandling(Sort.NullHandling nullHandling) {
+    switch (nullHandling) {
+      case NULLS_FIRST:
+        return OrderSpecifier.NullHandling.NullsFirst;
+      case NULLS_LAST:
+        return OrderSpecifier.NullHandling.NullsLast;
+      default:
+        return OrderSpecifier.NullHandling.Default;
+    }
+  }
+
+  public static class Builder {
+
+    private final Map<String, ComparableExpressionBase<?>> keys = new LinkedHashMap<>();
+    private final ComparableExpressionBase<?> tiebreaker;
+
+    private Builder(String property, ComparableExpressionBase<?> tiebreaker) {
+      this.tiebreaker = tiebreaker;
+      keys.put(property, tiebreaker);
+    }
+
+    public Builder key(String property, ComparableExpressionBase<?> expression) {
+      keys.put(property, expression);
+      return this;
+    }
+
+    public SortWhitelist build() {
+      return new SortWhitelist(new LinkedHashMap<>(keys), tiebreaker);
+    }
+
+  }
+
+}
@@ -0,0 +1,16 @@
+package study.querydsl.repository.support;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Set;
+
+// 정렬 허용 목록에 없는 속성. API 에서는 400 으로 응답한다.
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedSortException extends RuntimeException {
+
+  public UnsupportedSortException(String property, Set<String> allowed) {
+    super("Unsupported sort property '" + property + "'. Allowed: " + allowed);
+  }
+
+}
@@ -0,0 +1,62 @@
+package study.querydsl.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PreDeleteEvent;
+import org.hibernate.event.spi.PreDeleteEventListener;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 샤딩 모드에서 기본 EntityManagerFactory 로 Member/Team 을 쓰면 flush 시점에 실패시킨다.
+ * 검색은 샤드만 읽으므로 기본 DB 에 쓴 데이터는 보이지 않는다. 샤드 EntityManagerFactory 에는 등록하지 않는다.
+ */
+@RequiredArgsConstructor
+public class PrimaryWriteGuard implements PreInsertEventListener, PreUpdateEventListener, PreDeleteEventListener,
+    SmartInitializingSingleton {
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.PRE_INSERT, this);
+    registry.appendListeners(EventType.PRE_UPDATE, this);
+    registry.appendListeners(EventType.PRE_DELETE, this);
+  }
+
+  @Override
+  public boolean onPreInsert(PreInsertEvent event) {
+    check(event.getEntity());
+    return false;
+  }
+
+  @Override
+  public boolean onPreUpdate(PreUpdateEvent event) {
+    check(event.getEntity());
+    return false;
+  }
+
+  @Override
+  public boolean onPreDelete(PreDeleteEvent event) {
+    check(event.getEntity());
+    return false;
+  }
+
+  private static void check(Object entity) {
+    if (entity instanceof Member || entity instanceof Team) {
+      throw new UnsupportedShardWriteException("Persisting " + entity.getClass().getSimpleName());
+    }
+  }
+
+}
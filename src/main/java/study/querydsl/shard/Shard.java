@@ -0,0 +1,46 @@
+package study.querydsl.shard;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 샤드 하나의 DataSource, EntityManagerFactory, 트랜잭션.
+ * 샤드에는 읽기 모델 리스너가 등록되지 않는다.
+ */
+@Getter
+public class Shard {
+
+  private final int index;
+  private final HikariDataSource dataSource;
+  private final EntityManagerFactory entityManagerFactory;
+  private final EntityManager entityManager;
+  private final JPAQueryFactory queryFactory;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  Shard(int index, HikariDataSource dataSource, EntityManagerFactory entityManagerFactory) {
+    this.index = index;
+    this.dataSource = dataSource;
+    this.entityManagerFactory = entityManagerFactory;
+    this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+    this.queryFactory = new JPAQueryFactory(entityManager);
+
+    JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+  }
+
+  void close() {
+    entityManagerFactory.close();
+    dataSource.close();
+  }
+
+}
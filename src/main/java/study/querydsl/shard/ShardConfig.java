@@ -0,0 +1,86 @@
+package study.querydsl.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.orm.jpa.hibernate.SpringPhysicalNamingStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * shard.enabled=true 이면 기본 DataSource 와 별개로 샤드 N 개를 만든다.
+ * 샤드 EntityManagerFactory 는 빈으로 등록하지 않으므로 기본 JPA 자동 설정에는 영향이 없다.
+ * <p>
+ * 회원/팀 쓰기는 ShardedMemberRepository 로만 한다. 기본 DataSource 로 가는 쓰기(JPA save/persist, upsert, 배치)는
+ * 샤드 검색에 보이지 않으므로 PrimaryWriteGuard 와 각 저장소에서 UnsupportedShardWriteException 으로 막는다.
+ * 조회는 회원 검색과 id 단건 조회(MemberTeamCache)만 샤드로 가고, 기본 DataSource 만 읽는 조회는
+ * UnsupportedShardReadException 으로 막는다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "shard", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardConfig {
+
+  @Bean
+  public ShardRegistry shardRegistry(ShardProperties properties, EntityManagerFactoryBuilder builder) {
+    List<Shard> shards = new ArrayList<>();
+    for (int i = 0; i < properties.getCount(); i++) {
+      shards.add(createShard(i, properties, builder));
+    }
+    return new ShardRegistry(shards);
+  }
+
+  @Bean
+  public ShardedMemberRepository shardedMemberRepository(ShardRegistry shardRegistry) {
+    return new ShardedMemberRepository(shardRegistry);
+  }
+
+  // 빈으로 등록된 EntityManagerFactory 는 기본 DataSource 것 하나뿐이다.
+  @Bean
+  public PrimaryWriteGuard primaryWriteGuard(EntityManagerFactory entityManagerFactory) {
+    return new PrimaryWriteGuard(entityManagerFactory);
+  }
+
+  private static Shard createShard(int index, ShardProperties properties, EntityManagerFactoryBuilder builder) {
+    HikariDataSource dataSource = new HikariDataSource();
+    dataSource.setPoolName("shard-" + index);
+    dataSource.setJdbcUrl(properties.getUrlTemplate().replace("{index}", String.valueOf(index)));
+    dataSource.setUsername(properties.getUsername());
+    dataSource.setPassword(properties.getPassword());
+    dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+
+    Map<String, Object> jpaProperties = new HashMap<>();
+    jpaProperties.put(AvailableSettings.HBM2DDL_AUTO, properties.getDdlAuto());
+    jpaProperties.put(AvailableSettings.PHYSICAL_NAMING_STRATEGY, SpringPhysicalNamingStrategy.class.getName());
+    jpaProperties.put(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName());
+    LocalContainerEntityManagerFactoryBean factory = builder
+        .dataSource(dataSource)
+        .packages(Member.class)
+        .persistenceUnit("shard" + index)
+        .properties(jpaProperties)
+        .build();
+    factory.afterPropertiesSet();
+    // 백그라운드 부트스트랩이 설정되어 있어도 스키마 생성이 끝날 때까지 기다린다.
+    factory.getNativeEntityManagerFactory();
+
+    if (properties.getDdlAuto().startsWith("create")) {
+      new JdbcTemplate(dataSource).update("alter sequence hibernate_sequence restart with "
+          + (index + 1) + " increment by " + properties.getCount());
+    }
+    EntityManagerFactory entityManagerFactory = factory.getObject();
+    return new Shard(index, dataSource, entityManagerFactory);
+  }
+
+}
@@ -0,0 +1,26 @@
+package study.querydsl.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shard")
+public class ShardProperties {
+
+  private boolean enabled = false;
+
+  private int count = 2;
+
+  // {index} 는 0 부터 시작하는 샤드 번호로 바뀐다.
+  private String urlTemplate = "jdbc:h2:mem:shard{index};DB_CLOSE_DELAY=-1";
+  private String username = "sa";
+  private String password = "";
+
+  // create 일 때만 샤드별 시퀀스를 (index + 1) 부터 count 씩 증가하도록 맞춘다.
+  private String ddlAuto = "create";
+
+  private int maximumPoolSize = 5;
+
+}
@@ -0,0 +1,86 @@
+package study.querydsl.shard;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 샤드 목록과 라우팅, 병렬 fan-out.
+ * <p>
+ * 샤드 i 의 시퀀스는 i + 1 부터 샤드 수만큼 증가하므로 id 만 보고도 샤드를 알 수 있다. 팀은 이름으로 샤드를 고르고
+ * 회원은 소속 팀의 샤드에 저장하므로, 팀 id 가 곧 라우팅 키다.
+ */
+public class ShardRegistry implements DisposableBean {
+
+  private final List<Shard> shards;
+  private final ExecutorService executor;
+
+  public ShardRegistry(List<Shard> shards) {
+    this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+    AtomicInteger sequence = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(shards.size(), runnable -> {
+      Thread thread = new Thread(runnable, "shard-" + sequence.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public List<Shard> getShards() {
+    return shards;
+  }
+
+  public int size() {
+    return shards.size();
+  }
+
+  public Shard byId(long id) {
+    return shards.get((int) ((id - 1) % shards.size()));
+  }
+
+  public Shard byKey(String key) {
+    return shards.get(Math.floorMod(key.hashCode(), shards.size()));
+  }
+
+  /**
+   * 모든 샤드에 work 를 동시에 실행하고 샤드 순서대로 결과를 돌려준다. 하나라도 실패하면 예외를 그대로 던진다.
+   */
+  public <T> List<T> scatter(Function<Shard, T> work) {
+    List<Future<T>> futures = new ArrayList<>(shards.size());
+    for (Shard shard : shards) {
+      futures.add(executor.submit(() -> work.apply(shard)));
+    }
+    List<T> results = new ArrayList<>(shards.size());
+    try {
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      futures.forEach(future -> future.cancel(true));
+      throw new IllegalStateException("Interrupted while waiting for shards", e);
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException("Shard query failed", cause);
+    }
+    return results;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+    shards.forEach(Shard::close);
+  }
+
+}
@@ -0,0 +1,207 @@
+package study.querydsl.shard;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchConditionPredicates;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberSortKeys;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 단위로 샤딩된 회원 저장/검색.
+ * 검색은 모든 샤드에 같은 정렬로 병렬 실행한 뒤 k-way 병합한다. 페이지 조회는 샤드마다 offset + size 건을 가져와야
+ * 전체 순서에서 정확한 페이지를 만들 수 있으므로 뒤 페이지일수록 비싸다.
+ * <p>
+ * 샤딩 모드의 회원/팀 쓰기는 saveTeam/saveMember 만 지원한다. 다른 쓰기 경로는 기본 DataSource 로 가므로 막혀 있다.
+ * 조회는 검색과 id 단건 조회만 샤드로 보내고, 기본 DataSource 만 읽는 나머지 조회는 UnsupportedShardReadException 으로 막는다.
+ */
+@RequiredArgsConstructor
+public class ShardedMemberRepository {
+
+  private static final Comparator<MemberTeamDto> BY_MEMBER_ID = Comparator.comparing(MemberTeamDto::getMemberId);
+
+  // 샤드에는 trigram 읽기 모델이 없으므로 부분 검색만 like 로 바꾸고 나머지 규칙은 그대로 쓴다.
+  private static final MemberSearchConditionPredicates.Mapping SHARD_PREDICATES = MemberSearchConditionPredicates.mapping()
+      .usernameContains(member.username::contains);
+
+  private final ShardRegistry shards;
+
+  public Team saveTeam(String name) {
+    Shard shard = shards.byKey(name);
+    return shard.getTransactionTemplate().execute(status -> {
+      Team team = new Team(name);
+      shard.getEntityManager().persist(team);
+      return team;
+    });
+  }
+
+  /**
+   * 팀이 있으면 팀이 있는 샤드, 없으면 username 으로 샤드를 고른다.
+   */
+  public Member saveMember(String username, int age, Long teamId) {
+    Shard shard = teamId != null ? shards.byId(teamId) : shards.byKey(username);
+    return shard.getTransactionTemplate().execute(status -> {
+      Team team = teamId == null ? null : shard.getEntityManager().find(Team.class, teamId);
+      Member member = new Member(username, age, team);
+      shard.getEntityManager().persist(member);
+      return member;
+    });
+  }
+
+  // 회원 id 도 샤드 시퀀스에서 나오므로 id 로 샤드를 바로 고른다.
+  public MemberTeamDto findMember(Long memberId) {
+    Shard shard = shards.byId(memberId);
+    return shard.getReadOnlyTransactionTemplate().execute(status -> shard.getQueryFactory()
+        .select(new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(member.id.eq(memberId))
+        .fetchOne());
+  }
+
+  public String findTeamName(Long teamId) {
+    Shard shard = shards.byId(teamId);
+    return shard.getReadOnlyTransactionTemplate().execute(status -> shard.getQueryFactory()
+        .select(team.name)
+        .from(team)
+        .where(team.id.eq(teamId))
+        .fetchOne());
+  }
+
+  public List<MemberTeamDto> search(MemberSearchCondition condition) {
+    List<List<MemberTeamDto>> results = shards.scatter(shard -> shard.getReadOnlyTransactionTemplate().execute(
+        status -> contentQuery(shard, condition)
+            .orderBy(member.id.asc())
+            .fetch()));
+    return SortedMerge.merge(results, BY_MEMBER_ID, 0, Integer.MAX_VALUE);
+  }
+
+  // id 순 앞쪽 limit 건. 샤드마다 limit 건만 읽으면 합친 결과의 앞부분이 정확하다.
+  public List<MemberTeamDto> search(MemberSearchCondition condition, long limit) {
+    List<List<MemberTeamDto>> results = shards.scatter(shard -> shard.getReadOnlyTransactionTemplate().execute(
+        status -> contentQuery(shard, condition)
+            .orderBy(member.id.asc())
+            .limit(limit)
+            .fetch()));
+    return SortedMerge.merge(results, BY_MEMBER_ID, 0, (int) Math.min(limit, Integer.MAX_VALUE));
+  }
+
+  public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+    List<OrderSpecifier<?>> orders = new ArrayList<>();
+    Comparator<MemberTeamDto> comparator = ordering(pageable.getSort(), orders);
+    long fetchSize = pageable.getOffset() + pageable.getPageSize();
+
+    List<ShardResult> results = shards.scatter(shard -> shard.getReadOnlyTransactionTemplate().execute(status ->
+        new ShardResult(
+            contentQuery(shard, condition)
+                .orderBy(orders.toArray(new OrderSpecifier[0]))
+                .limit(fetchSize)
+                .fetch(),
+            shard.getQueryFactory()
+                .select(member.id)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(predicates(condition))
+                .fetchCount())));
+
+    List<List<MemberTeamDto>> contents = new ArrayList<>(results.size());
+    long total = 0;
+    for (ShardResult result : results) {
+      contents.add(result.content);
+      total += result.total;
+    }
+    List<MemberTeamDto> content = SortedMerge.merge(contents, comparator, pageable.getOffset(), pageable.getPageSize());
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  private static JPAQuery<MemberTeamDto> contentQuery(Shard shard, MemberSearchCondition condition) {
+    return shard.getQueryFactory()
+        .select(new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(predicates(condition));
+  }
+
+  private static Predicate[] predicates(MemberSearchCondition condition) {
+    return SHARD_PREDICATES.toPredicates(condition);
+  }
+
+  /**
+   * DB 정렬과 병합 비교가 같은 순서가 되도록 둘을 함께 만든다. 정렬 키와 tiebreaker 방향은 단일 DB 경로와 같은
+   * MemberSortKeys.MEMBER 를 따르고, null 위치는 DB 기본값에 맡기지 않고 양쪽에 명시한다.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static Comparator<MemberTeamDto> ordering(Sort sort, List<OrderSpecifier<?>> orders) {
+    Comparator<MemberTeamDto> comparator = null;
+    for (OrderSpecifier<?> order : MemberSortKeys.MEMBER.toOrderSpecifiers(sort)) {
+      OrderSpecifier.NullHandling nullHandling = nullHandling(order);
+      orders.add(new OrderSpecifier(order.getOrder(), order.getTarget(), nullHandling));
+
+      Comparator<Comparable> values = order.isAscending()
+          ? Comparator.<Comparable>naturalOrder() : Comparator.<Comparable>reverseOrder();
+      values = nullHandling == OrderSpecifier.NullHandling.NullsLast
+          ? Comparator.nullsLast(values) : Comparator.nullsFirst(values);
+      Comparator<MemberTeamDto> next = Comparator.comparing(mergeKey(order.getTarget()), values);
+      comparator = comparator == null ? next : comparator.thenComparing(next);
+    }
+    return comparator;
+  }
+
+  // 지정이 없으면 단일 DB 경로(H2 기본값)와 같게 오름차순은 null 이 앞, 내림차순은 뒤
+  private static OrderSpecifier.NullHandling nullHandling(OrderSpecifier<?> order) {
+    if (order.getNullHandling() != OrderSpecifier.NullHandling.Default) {
+      return order.getNullHandling();
+    }
+    return order.isAscending() ? OrderSpecifier.NullHandling.NullsFirst : OrderSpecifier.NullHandling.NullsLast;
+  }
+
+  // MemberSortKeys.MEMBER 의 정렬 컬럼에 대응하는 MemberTeamDto 값
+  @SuppressWarnings("rawtypes")
+  private static Function<MemberTeamDto, Comparable> mergeKey(Expression<?> target) {
+    if (target.equals(member.id)) {
+      return MemberTeamDto::getMemberId;
+    }
+    if (target.equals(member.username)) {
+      return MemberTeamDto::getUsername;
+    }
+    if (target.equals(member.age)) {
+      return MemberTeamDto::getAge;
+    }
+    throw new IllegalStateException("No merge key for sort expression " + target);
+  }
+
+  @RequiredArgsConstructor
+  private static class ShardResult {
+    private final List<MemberTeamDto> content;
+    private final long total;
+  }
+
+}
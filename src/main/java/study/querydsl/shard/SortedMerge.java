@@ -0,0 +1,65 @@
+package study.querydsl.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 이미 정렬된 목록 k 개를 힙으로 병합한다. O(n log k)
+ */
+public abstract class SortedMerge {
+
+  private SortedMerge() {
+  }
+
+  /**
+   * 병합 결과에서 offset 건을 건너뛰고 최대 limit 건을 반환한다.
+   */
+  public static <T> List<T> merge(List<? extends List<T>> sortedLists, Comparator<? super T> comparator,
+      long offset, int limit) {
+    PriorityQueue<Cursor<T>> heap = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+        (a, b) -> comparator.compare(a.head, b.head));
+    for (List<T> list : sortedLists) {
+      Iterator<T> iterator = list.iterator();
+      if (iterator.hasNext()) {
+        heap.add(new Cursor<>(iterator));
+      }
+    }
+
+    List<T> result = new ArrayList<>(Math.min(limit, 1024));
+    long skipped = 0;
+    while (!heap.isEmpty() && result.size() < limit) {
+      Cursor<T> cursor = heap.poll();
+      if (skipped < offset) {
+        skipped++;
+      } else {
+        result.add(cursor.head);
+      }
+      if (cursor.advance()) {
+        heap.add(cursor);
+      }
+    }
+    return result;
+  }
+
+  private static class Cursor<T> {
+    private final Iterator<T> iterator;
+    private T head;
+
+    Cursor(Iterator<T> iterator) {
+      this.iterator = iterator;
+      this.head = iterator.next();
+    }
+
+    boolean advance() {
+      if (!iterator.hasNext()) {
+        return false;
+      }
+      head = iterator.next();
+      return true;
+    }
+  }
+
+}
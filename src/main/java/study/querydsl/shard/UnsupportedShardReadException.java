@@ -0,0 +1,25 @@
+package study.querydsl.shard;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// 샤딩 모드에서 기본 DataSource 만 읽는 조회. 기본 DB 에는 회원/팀이 없으므로 빈 결과 대신 실패시킨다.
+@ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+public class UnsupportedShardReadException extends UnsupportedOperationException {
+
+  public UnsupportedShardReadException(String operation) {
+    super(operation + " reads only the primary datasource and is not supported when shard.enabled=true.");
+  }
+
+  /**
+   * shardedMemberRepository 는 shard.enabled=true 일 때만 있다.
+   */
+  public static void rejectIfSharded(ObjectProvider<ShardedMemberRepository> shardedMemberRepository,
+      String operation) {
+    if (shardedMemberRepository.getIfAvailable() != null) {
+      throw new UnsupportedShardReadException(operation);
+    }
+  }
+
+}
@@ -0,0 +1,15 @@
+package study.querydsl.shard;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// 샤딩 모드에서 기본 DataSource 로 가는 Member/Team 쓰기. 샤드 검색에 보이지 않으므로 막는다.
+@ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+public class UnsupportedShardWriteException extends UnsupportedOperationException {
+
+  public UnsupportedShardWriteException(String operation) {
+    super(operation + " writes to the primary datasource and is not supported when shard.enabled=true."
+        + " Use ShardedMemberRepository.saveTeam/saveMember instead.");
+  }
+
+}
@@ -0,0 +1,181 @@
+package study.querydsl.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import study.querydsl.controller.MemberReadPaths;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberSortKeys;
+import study.querydsl.repository.MemberTeamQueries;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static study.querydsl.dto.MemberSearchConditionPredicates.AGE_GOE;
+import static study.querydsl.dto.MemberSearchConditionPredicates.AGE_LOE;
+import static study.querydsl.dto.MemberSearchConditionPredicates.TEAM_NAME;
+import static study.querydsl.dto.MemberSearchConditionPredicates.USERNAME;
+import static study.querydsl.dto.MemberSearchConditionPredicates.USERNAME_CONTAINS;
+import static study.querydsl.dto.MemberSearchConditionPredicates.USERNAME_STARTS_WITH;
+import static study.querydsl.dto.MemberSearchConditionPredicates.describe;
+
+/**
+ * 회원 검색 API(v1 ~ v3) 워밍업. 배포 직후 첫 요청들이 JPQL 파싱, 쿼리 플랜 생성, 프로젝션 준비, JIT 비용을 내지 않도록
+ * readiness 가 열리기 전에 (ApplicationRunner 는 ACCEPTING_TRAFFIC 이전에 실행된다) 모든 조건 조합과 페이지 변형을 한 번씩 실행한다.
+ * <p>
+ * 조건 값은 실제 데이터와 맞지 않아도 된다. 쿼리 모양만 같으면 같은 플랜과 같은 코드 경로를 탄다.
+ * 결과는 JSON 으로 직렬화까지 해서 Jackson 도 데운다. 실패해도 기동은 계속한다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(WarmupProperties.class)
+@ConditionalOnProperty(prefix = "member.warmup", name = "enabled", havingValue = "true")
+public class MemberQueryWarmup implements ApplicationRunner {
+
+  private static final int ALL_SHAPES = 1 << 6;
+  private static final String[] ENDPOINTS = {"v1", "v2", "v3"};
+
+  private final WarmupProperties properties;
+  private final MemberReadPaths readPaths;
+  private final ObjectMapper objectMapper;
+
+  // 마지막 실행 결과. 실행 전에는 null
+  private volatile WarmupReport lastReport;
+
+  public MemberQueryWarmup(WarmupProperties properties, MemberReadPaths readPaths, ObjectMapper objectMapper) {
+    this.properties = properties;
+    this.readPaths = readPaths;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    long deadline = System.nanoTime() + properties.getBudget().toNanos();
+    List<Callable<Object>> queries = queries();
+    List<Long> passMillis = new ArrayList<>();
+    int executed = 0;
+    int failures = 0;
+    long slowestNanos = 0;
+    String slowest = null;
+
+    for (int iteration = 0; iteration < properties.getIterations(); iteration++) {
+      long passStart = System.nanoTime();
+      for (int i = 0; i < queries.size(); i++) {
+        if (System.nanoTime() > deadline) {
+          log.warn("member query warm-up stopped by budget {}: iteration={}, queries={}/{}",
+              properties.getBudget(), iteration + 1, i, queries.size());
+          report(new WarmupReport(queries.size(), executed, failures, true, passMillis, slowest,
+              slowestNanos / 1_000_000));
+          return;
+        }
+        long start = System.nanoTime();
+        executed++;
+        try {
+          objectMapper.writeValueAsBytes(queries.get(i).call());
+        } catch (Exception e) {
+          failures++;
+          log.debug("member query warm-up query {} failed", i, e);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (iteration == 0 && elapsed > slowestNanos) {
+          slowestNanos = elapsed;
+          slowest = queries.get(i).toString();
+        }
+      }
+      passMillis.add((System.nanoTime() - passStart) / 1_000_000);
+    }
+    report(new WarmupReport(queries.size(), executed, failures, false, passMillis, slowest,
+        slowestNanos / 1_000_000));
+  }
+
+  public WarmupReport getLastReport() {
+    return lastReport;
+  }
+
+  /**
+   * 모든 조건 조합(2^6) x 엔드포인트별 조회. 페이징은 첫 페이지, offset 이 있는 페이지, 허용된 정렬 키별 정렬을 포함한다.
+   */
+  List<Callable<Object>> queries() {
+    List<Pageable> pages = new ArrayList<>();
+    pages.add(PageRequest.of(0, properties.getPageSize()));
+    pages.add(PageRequest.of(1, properties.getPageSize()));
+    for (String key : MemberSortKeys.MEMBER.keys()) {
+      pages.add(PageRequest.of(0, properties.getPageSize(), Sort.by(Sort.Direction.DESC, key)));
+    }
+
+    List<Callable<Object>> queries = new ArrayList<>();
+    for (int shape = 0; shape < ALL_SHAPES; shape++) {
+      MemberSearchCondition condition = conditionOf(shape);
+      String name = describe(shape);
+      for (String endpoint : ENDPOINTS) {
+        MemberTeamQueries target = readPaths.forEndpoint(endpoint);
+        if (endpoint.equals("v1")) {
+          queries.add(named(endpoint + " " + name, () -> target.search(condition, properties.getPageSize())));
+          continue;
+        }
+        for (Pageable page : pages) {
+          String label = endpoint + " " + name + " " + page;
+          queries.add(endpoint.equals("v2")
+              ? named(label, () -> target.searchPageSimple(condition, page))
+              : named(label, () -> target.searchPageComplex(condition, page)));
+        }
+      }
+    }
+    return queries;
+  }
+
+  static MemberSearchCondition conditionOf(int shape) {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    if ((shape & USERNAME) != 0) {
+      condition.setUsername("warmup");
+    }
+    if ((shape & USERNAME_STARTS_WITH) != 0) {
+      condition.setUsernameStartsWith("warm");
+    }
+    if ((shape & USERNAME_CONTAINS) != 0) {
+      // 3글자 이상이어야 trigram 경로를 탄다.
+      condition.setUsernameContains("armu");
+    }
+    if ((shape & TEAM_NAME) != 0) {
+      condition.setTeamName("warmup");
+    }
+    if ((shape & AGE_GOE) != 0) {
+      condition.setAgeGoe(0);
+    }
+    if ((shape & AGE_LOE) != 0) {
+      condition.setAgeLoe(200);
+    }
+    return condition;
+  }
+
+  private void report(WarmupReport report) {
+    lastReport = report;
+    log.info("member query warm-up finished: queries={}, executed={}, passes(ms)={}, failures={}, "
+            + "slowest cold query={} ({}ms)",
+        report.getQueries(), report.getExecuted(), report.getPassMillis(), report.getFailures(),
+        report.getSlowest(), report.getSlowestMillis());
+  }
+
+  private static Callable<Object> named(String name, Callable<Object> query) {
+    return new Callable<Object>() {
+      @Override
+      public Object call() throws Exception {
+        return query.call();
+      }
+
+      @Override
+      public String toString() {
+        return name;
+      }
+    };
+  }
+
+}
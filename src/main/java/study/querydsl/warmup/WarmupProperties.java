@@ -0,0 +1,24 @@
+package study.querydsl.warmup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.warmup")
+public class WarmupProperties {
+
+  private boolean enabled = false;
+
+  // 워밍업 전체에 쓸 수 있는 시간. 넘으면 남은 조회를 건너뛰고 바로 readiness 를 연다.
+  private Duration budget = Duration.ofSeconds(10);
+
+  // 모든 조회 조합을 몇 번 반복할지. 첫 회차가 쿼리 플랜을 만들고 나머지는 JIT 컴파일을 돕는다.
+  private int iterations = 3;
+
+  private int pageSize = 20;
+
+}
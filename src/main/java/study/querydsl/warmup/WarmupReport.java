@@ -0,0 +1,22 @@
+package study.querydsl.warmup;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class WarmupReport {
+
+  // 한 회차의 조회 수
+  int queries;
+  // 실제로 실행한 조회 수 (실패 포함)
+  int executed;
+  int failures;
+  // 예산을 다 써서 중간에 멈췄는지
+  boolean budgetExhausted;
+  // 끝까지 돈 회차별 소요 시간
+  List<Long> passMillis;
+  String slowest;
+  long slowestMillis;
+
+}
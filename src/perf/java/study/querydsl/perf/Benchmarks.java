@@ -0,0 +1,132 @@
+package study.querydsl.perf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 벤치마크 공통 도구. 현재 스레드의 할당량(ThreadMXBean)과 힙 최고 사용량을 실행 시간과 함께 잰다.
+ */
+final class Benchmarks {
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private Benchmarks() {
+  }
+
+  static Map<String, String> parseArgs(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Expected key=value but was: " + arg);
+      }
+      values.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+    return values;
+  }
+
+  /**
+   * warmup 회 실행 후 iterations 회 측정한 평균을 출력한다. task 는 처리한 건수를 반환한다.
+   */
+  static void measure(String name, int warmup, int iterations, Callable<Long> task) throws Exception {
+    for (int i = 0; i < warmup; i++) {
+      task.call();
+    }
+    List<MemoryPoolMXBean> heapPools = heapPools();
+    long totalNanos = 0;
+    long totalAllocated = 0;
+    long maxPeakHeap = 0;
+    long rows = 0;
+    for (int i = 0; i < iterations; i++) {
+      System.gc();
+      heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+      long threadId = Thread.currentThread().getId();
+      long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      rows = task.call();
+      totalNanos += System.nanoTime() - start;
+      totalAllocated += THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+      maxPeakHeap = Math.max(maxPeakHeap, heapPools.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum());
+    }
+    double millis = totalNanos / 1_000_000.0 / iterations;
+    System.out.printf("%-28s rows=%,d  time=%,.1f ms  rows/s=%,.0f  alloc=%,d KB/op  peakHeap=%,d MB%n",
+        name, rows, millis, rows / (millis / 1000), totalAllocated / iterations / 1024, maxPeakHeap >> 20);
+  }
+
+  /**
+   * task 결과가 살아 있는 동안 늘어난 힙 사용량(GC 후). 결과 객체 그래프의 대략적인 크기다.
+   */
+  static long retainedBytes(Callable<Object> task) throws Exception {
+    long before = usedHeapAfterGc();
+    Object result = task.call();
+    long after = usedHeapAfterGc();
+    // 측정이 끝날 때까지 result 가 수거되지 않도록 참조를 남긴다.
+    retained = result;
+    retained = null;
+    return after - before;
+  }
+
+  private static volatile Object retained;
+
+  private static long usedHeapAfterGc() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * mainClass 를 새 JVM 으로 실행하고 resultPrefix 로 시작하는 출력 줄에서 접두어 뒤 값을 반환한다. (기동 시간처럼 JVM 이 식은 상태를 재는 경우)
+   */
+  static String launch(Class<?> mainClass, List<String> jvmArgs, List<String> args, String resultPrefix)
+      throws Exception {
+    List<String> command = new ArrayList<>();
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    command.addAll(jvmArgs);
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(mainClass.getName());
+    command.addAll(args);
+    Process process = new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .start();
+    String result = null;
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(resultPrefix)) {
+          result = line.substring(resultPrefix.length());
+        }
+      }
+    }
+    if (process.waitFor() != 0 || result == null) {
+      throw new IllegalStateException("Child run failed: " + args + ", exit=" + process.exitValue());
+    }
+    return result;
+  }
+
+  static long median(List<Long> values) {
+    List<Long> sorted = new ArrayList<>(values);
+    Collections.sort(sorted);
+    return sorted.get(sorted.size() / 2);
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+    pools.removeIf(pool -> pool.getType() != MemoryType.HEAP);
+    return pools;
+  }
+
+}
@@ -0,0 +1,72 @@
+package study.querydsl.perf;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberSupportRepository;
+import study.querydsl.repository.support.QueryOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 대량 회원 조회 결과를 List&lt;MemberTeamDto&gt; 와 MemberTeamColumns 로 받았을 때의 힙 사용량과 시간을 비교한다.
+ * <pre>
+ * ./gradlew benchmark -Pbenchmark=ColumnsBenchmark -PbenchmarkArgs="members=500000"
+ * </pre>
+ */
+public class ColumnsBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = Benchmarks.parseArgs(args);
+    int iterations = Integer.parseInt(options.getOrDefault("iterations", "3"));
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+        .profiles("bench")
+        .properties(
+            "spring.main.web-application-type=none",
+            "bench.data.members=" + options.getOrDefault("members", "500000"))
+        .run();
+    try {
+      MemberSupportRepository repository = context.getBean(MemberSupportRepository.class);
+      MemberSearchCondition condition = new MemberSearchCondition();
+
+      System.out.printf("retained dto list         %,d KB%n",
+          Benchmarks.retainedBytes(() -> dtos(repository, condition)) / 1024);
+      System.out.printf("retained columns          %,d KB%n",
+          Benchmarks.retainedBytes(() -> repository.searchColumns(condition, false)) / 1024);
+      System.out.printf("retained columns+username %,d KB%n",
+          Benchmarks.retainedBytes(() -> repository.searchColumns(condition, true)) / 1024);
+
+      // 결과를 만든 뒤 나이 합계를 구하는 데까지
+      Benchmarks.measure("dto list", 1, iterations, () -> {
+        long ageSum = 0;
+        List<MemberTeamDto> dtos = dtos(repository, condition);
+        for (MemberTeamDto dto : dtos) {
+          ageSum += dto.getAge();
+        }
+        return (long) dtos.size();
+      });
+      Benchmarks.measure("columns", 1, iterations, () -> {
+        AtomicLong ageSum = new AtomicLong();
+        MemberTeamColumns columns = repository.searchColumns(condition, false);
+        columns.forEach((memberId, username, age, teamId, teamName) -> ageSum.addAndGet(age));
+        return (long) columns.size();
+      });
+    } finally {
+      context.close();
+    }
+  }
+
+  private static List<MemberTeamDto> dtos(MemberSupportRepository repository, MemberSearchCondition condition) {
+    List<MemberTeamDto> dtos = new ArrayList<>();
+    repository.streamSearch(condition, QueryOptions.STREAM, dtos::add);
+    return dtos;
+  }
+
+}
@@ -0,0 +1,62 @@
+package study.querydsl.perf;
+
+import org.h2.tools.Server;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberSupportRepository;
+import study.querydsl.repository.support.QueryOptions;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * fetch size 와 forward-only 커서가 대량 조회에 주는 영향을 H2 TCP 서버로 잰다.
+ * 임베디드(mem:) 연결은 네트워크 왕복이 없어 fetch size 가 의미 없으므로 같은 JVM 에 TCP 서버를 띄워 접속한다.
+ * LAZY_QUERY_EXECUTION=1 이 아니면 H2 서버가 결과를 모두 만든 뒤 보내므로 커서로 읽어도 서버 쪽 메모리는 줄지 않는다.
+ * <pre>
+ * ./gradlew benchmark -Pbenchmark=FetchSizeBenchmark -PbenchmarkArgs="members=500000 fetchSizes=10,100,1000,5000"
+ * </pre>
+ */
+public class FetchSizeBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = Benchmarks.parseArgs(args);
+    int iterations = Integer.parseInt(options.getOrDefault("iterations", "3"));
+    String[] fetchSizes = options.getOrDefault("fetchSizes", "10,100,1000,5000").split(",");
+
+    Server server = Server.createTcpServer("-tcpPort", "0", "-tcpAllowOthers").start();
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+        .profiles("bench")
+        .properties(
+            "spring.main.web-application-type=none",
+            "spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort()
+                + "/mem:fetch-bench;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1",
+            "bench.data.members=" + options.getOrDefault("members", "500000"))
+        .run();
+    try {
+      MemberSupportRepository repository = context.getBean(MemberSupportRepository.class);
+      MemberSearchCondition condition = new MemberSearchCondition();
+
+      Benchmarks.measure("list driver default", 1, iterations,
+          () -> run(repository, condition, QueryOptions.builder().build()));
+      for (String fetchSize : fetchSizes) {
+        int size = Integer.parseInt(fetchSize.trim());
+        Benchmarks.measure("list fetchSize=" + size, 1, iterations,
+            () -> run(repository, condition, QueryOptions.LIST.toBuilder().fetchSize(size).build()));
+        Benchmarks.measure("stream fetchSize=" + size, 1, iterations,
+            () -> run(repository, condition, QueryOptions.STREAM.toBuilder().fetchSize(size).build()));
+      }
+    } finally {
+      context.close();
+      server.stop();
+    }
+  }
+
+  private static long run(MemberSupportRepository repository, MemberSearchCondition condition, QueryOptions options) {
+    AtomicLong ageSum = new AtomicLong();
+    return repository.streamSearch(condition, options, dto -> ageSum.addAndGet(dto.getAge()));
+  }
+
+}
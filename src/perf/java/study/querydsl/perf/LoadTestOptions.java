@@ -0,0 +1,62 @@
+package study.querydsl.perf;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * key=value 형태의 실행 인자.
+ * <pre>
+ * duration=30        측정 시간(초)
+ * warmup=10          측정 전 워밍업 시간(초)
+ * concurrency=16     동시 요청 스레드 수
+ * mix=/v1/members:1,/v2/members:1,/v3/members:1   엔드포인트별 가중치
+ * requests=api.http  요청 파라미터 세트를 읽을 파일
+ * report=build/reports/loadtest/report.json
+ * profiles=local,loadtest
+ * </pre>
+ */
+class LoadTestOptions {
+
+  final int durationSeconds;
+  final int warmupSeconds;
+  final int concurrency;
+  final Map<String, Integer> mix;
+  final Path requestsFile;
+  final Path reportFile;
+  final String[] profiles;
+
+  private LoadTestOptions(Map<String, String> args) {
+    this.durationSeconds = Integer.parseInt(args.getOrDefault("duration", "30"));
+    this.warmupSeconds = Integer.parseInt(args.getOrDefault("warmup", "10"));
+    this.concurrency = Integer.parseInt(args.getOrDefault("concurrency", "16"));
+    this.mix = parseMix(args.getOrDefault("mix", "/v1/members:1,/v2/members:1,/v3/members:1"));
+    this.requestsFile = Paths.get(args.getOrDefault("requests", "api.http"));
+    this.reportFile = Paths.get(args.getOrDefault("report", "build/reports/loadtest/report.json"));
+    this.profiles = args.getOrDefault("profiles", "local,loadtest").split(",");
+  }
+
+  static LoadTestOptions parse(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Expected key=value but was: " + arg);
+      }
+      values.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+    return new LoadTestOptions(values);
+  }
+
+  private static Map<String, Integer> parseMix(String mix) {
+    Map<String, Integer> weights = new LinkedHashMap<>();
+    for (String entry : mix.split(",")) {
+      int separator = entry.lastIndexOf(':');
+      weights.put(entry.substring(0, separator), Integer.parseInt(entry.substring(separator + 1)));
+    }
+    return weights;
+  }
+
+}
@@ -0,0 +1,161 @@
+package study.querydsl.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 인메모리 H2 로 애플리케이션을 띄우고 /v1 ~ /v3 members 에 동시 요청을 보내 지연 시간 분포와 처리량을 측정한다.
+ * 결과는 콘솔과 JSON 리포트 파일로 남긴다.
+ */
+public class LoadTestRunner {
+
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+    RequestMix mix = RequestMix.load(options.requestsFile, options.mix);
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+        .profiles(options.profiles)
+        .run();
+    try {
+      String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+      run(baseUrl, mix, options, options.warmupSeconds, false);
+      Map<String, Object> report = run(baseUrl, mix, options, options.durationSeconds, true);
+
+      Files.createDirectories(options.reportFile.toAbsolutePath().getParent());
+      new ObjectMapper()
+          .enable(SerializationFeature.INDENT_OUTPUT)
+          .writeValue(options.reportFile.toFile(), report);
+      System.out.println("report written to " + options.reportFile.toAbsolutePath());
+    } finally {
+      context.close();
+    }
+  }
+
+  private static Map<String, Object> run(String baseUrl, RequestMix mix, LoadTestOptions options,
+      int seconds, boolean measure) throws InterruptedException {
+    List<String> endpoints = mix.endpoints();
+    List<Recorder> recorders = new ArrayList<>();
+    List<AtomicLong> errors = new ArrayList<>();
+    for (int i = 0; i < endpoints.size(); i++) {
+      recorders.add(new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+      errors.add(new AtomicLong());
+    }
+
+    long endNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    ExecutorService executor = Executors.newFixedThreadPool(options.concurrency);
+    CountDownLatch done = new CountDownLatch(options.concurrency);
+    long startNanos = System.nanoTime();
+    for (int t = 0; t < options.concurrency; t++) {
+      executor.execute(() -> {
+        try {
+          while (System.nanoTime() < endNanos) {
+            int endpoint = mix.nextEndpoint();
+            long requestStart = System.nanoTime();
+            boolean ok = get(baseUrl + mix.nextRequest(endpoint));
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - requestStart);
+            recorders.get(endpoint).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            if (!ok) {
+              errors.get(endpoint).incrementAndGet();
+            }
+          }
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+    done.await();
+    double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+    executor.shutdown();
+    if (!measure) {
+      return null;
+    }
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("timestamp", Instant.now().toString());
+    report.put("durationSeconds", elapsedSeconds);
+    report.put("concurrency", options.concurrency);
+    report.put("profiles", options.profiles);
+    Map<String, Object> endpointReports = new LinkedHashMap<>();
+    Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    long totalErrors = 0;
+    for (int i = 0; i < endpoints.size(); i++) {
+      Histogram histogram = recorders.get(i).getIntervalHistogram();
+      total.add(histogram);
+      totalErrors += errors.get(i).get();
+      endpointReports.put(endpoints.get(i), summary(histogram, errors.get(i).get(), elapsedSeconds));
+    }
+    report.put("endpoints", endpointReports);
+    report.put("total", summary(total, totalErrors, elapsedSeconds));
+
+    for (Map.Entry<String, Object> entry : endpointReports.entrySet()) {
+      System.out.println(entry.getKey() + " " + entry.getValue());
+    }
+    System.out.println("total " + report.get("total"));
+    return report;
+  }
+
+  private static Map<String, Object> summary(Histogram histogram, long errors, double elapsedSeconds) {
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("requests", histogram.getTotalCount());
+    summary.put("errors", errors);
+    summary.put("throughputPerSecond", histogram.getTotalCount() / elapsedSeconds);
+    Map<String, Object> latency = new LinkedHashMap<>();
+    latency.put("mean", histogram.getMean() / 1000.0);
+    for (double percentile : PERCENTILES) {
+      latency.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+          histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+    latency.put("max", histogram.getMaxValue() / 1000.0);
+    summary.put("latencyMillis", latency);
+    return summary;
+  }
+
+  private static boolean get(String url) {
+    HttpURLConnection connection = null;
+    try {
+      connection = (HttpURLConnection) new URL(url).openConnection();
+      connection.setRequestProperty("Accept", "application/json");
+      int status = connection.getResponseCode();
+      InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+      if (body != null) {
+        try (InputStream in = body) {
+          byte[] buffer = new byte[8192];
+          while (in.read(buffer) >= 0) {
+            // keep-alive 연결 재사용을 위해 응답을 끝까지 읽는다.
+          }
+        }
+      }
+      return status < 400;
+    } catch (IOException e) {
+      if (connection != null) {
+        connection.disconnect();
+      }
+      return false;
+    }
+  }
+
+}
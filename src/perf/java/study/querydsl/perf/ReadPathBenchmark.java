@@ -0,0 +1,71 @@
+package study.querydsl.perf;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSqlRepository;
+import study.querydsl.repository.MemberTeamQueries;
+
+import java.util.Map;
+
+/**
+ * 회원 검색 DTO 조회를 JPA(MemberRepository) 와 querydsl-sql(MemberSqlRepository) 로 각각 실행해 비교한다.
+ * v1 은 결과 건수 상한이 있는 목록, v3 는 페이지 조회다. 한 번 측정에 calls 번 호출한다.
+ * <pre>
+ * ./gradlew benchmark -Pbenchmark=ReadPathBenchmark -PbenchmarkArgs="members=200000 calls=200 limit=1000 size=100"
+ * </pre>
+ */
+public class ReadPathBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = Benchmarks.parseArgs(args);
+    int calls = Integer.parseInt(options.getOrDefault("calls", "200"));
+    long limit = Long.parseLong(options.getOrDefault("limit", "1000"));
+    int size = Integer.parseInt(options.getOrDefault("size", "100"));
+    int iterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+        .profiles("bench")
+        .properties(
+            "spring.main.web-application-type=none",
+            "bench.data.members=" + options.getOrDefault("members", "200000"))
+        .run();
+    try {
+      MemberTeamQueries jpa = context.getBean(MemberRepository.class);
+      MemberTeamQueries sql = context.getBean(MemberSqlRepository.class);
+
+      MemberSearchCondition condition = new MemberSearchCondition();
+      condition.setAgeGoe(20);
+      condition.setAgeLoe(60);
+
+      for (String path : new String[]{"jpa", "sql"}) {
+        MemberTeamQueries queries = path.equals("jpa") ? jpa : sql;
+        Benchmarks.measure("v1 " + path, 2, iterations, () -> {
+          long rows = 0;
+          for (int i = 0; i < calls; i++) {
+            rows += queries.search(condition, limit).size();
+          }
+          return rows;
+        });
+      }
+      for (String path : new String[]{"jpa", "sql"}) {
+        MemberTeamQueries queries = path.equals("jpa") ? jpa : sql;
+        Benchmarks.measure("v3 " + path, 2, iterations, () -> {
+          long rows = 0;
+          for (int i = 0; i < calls; i++) {
+            rows += queries.searchPageComplex(condition, PageRequest.of(i % 10, size, Sort.by("age")))
+                .getNumberOfElements();
+          }
+          return rows;
+        });
+      }
+    } finally {
+      context.close();
+    }
+  }
+
+}
@@ -0,0 +1,79 @@
+package study.querydsl.perf;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * api.http 의 GET 요청들을 엔드포인트별로 묶고, 가중치에 따라 다음 요청 경로를 고른다.
+ */
+class RequestMix {
+
+  private final List<String> endpoints = new ArrayList<>();
+  private final List<List<String>> requestsByEndpoint = new ArrayList<>();
+  private final int[] cumulativeWeights;
+
+  private RequestMix(Map<String, Integer> weights, List<String> requests) {
+    cumulativeWeights = new int[weights.size()];
+    int total = 0;
+    for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+      List<String> matched = new ArrayList<>();
+      for (String request : requests) {
+        String path = request.indexOf('?') < 0 ? request : request.substring(0, request.indexOf('?'));
+        if (path.equals(entry.getKey())) {
+          matched.add(request);
+        }
+      }
+      // api.http 에 없는 엔드포인트는 파라미터 없이 호출한다.
+      if (matched.isEmpty()) {
+        matched.add(entry.getKey());
+      }
+      total += entry.getValue();
+      cumulativeWeights[endpoints.size()] = total;
+      endpoints.add(entry.getKey());
+      requestsByEndpoint.add(matched);
+    }
+  }
+
+  static RequestMix load(Path apiHttp, Map<String, Integer> weights) throws IOException {
+    List<String> requests = new ArrayList<>();
+    for (String line : Files.readAllLines(apiHttp, StandardCharsets.UTF_8)) {
+      line = line.trim();
+      if (!line.startsWith("GET ")) {
+        continue;
+      }
+      String url = line.substring(4).trim();
+      int pathStart = url.indexOf('/', url.indexOf("//") + 2);
+      requests.add(pathStart < 0 ? "/" : url.substring(pathStart));
+    }
+    return new RequestMix(weights, requests);
+  }
+
+  List<String> endpoints() {
+    return endpoints;
+  }
+
+  /**
+   * @return 엔드포인트 인덱스
+   */
+  int nextEndpoint() {
+    int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (pick < cumulativeWeights[i]) {
+        return i;
+      }
+    }
+    return cumulativeWeights.length - 1;
+  }
+
+  String nextRequest(int endpoint) {
+    List<String> requests = requestsByEndpoint.get(endpoint);
+    return requests.get(ThreadLocalRandom.current().nextInt(requests.size()));
+  }
+
+}
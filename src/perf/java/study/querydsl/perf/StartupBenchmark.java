@@ -0,0 +1,116 @@
+package study.querydsl.perf;
+
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 새 JVM 으로 애플리케이션을 runs 번씩 띄워 JVM 시작부터 readiness, 샘플 데이터 적재 완료까지 걸린 시간을 비교한다.
+ * <ul>
+ * <li>baseline: 클래스패스 스캔(spring.index.ignore), 즉시 JPA 부트스트랩, @PostConstruct 샘플 데이터</li>
+ * <li>fast: 컴포넌트 인덱스, fast 프로필 (deferred bootstrap, readiness 이후 샘플 데이터)</li>
+ * </ul>
+ * <pre>
+ * ./gradlew benchmark -Pbenchmark=StartupBenchmark -PbenchmarkArgs="runs=5"
+ * </pre>
+ */
+public class StartupBenchmark {
+
+  private static final String RESULT_PREFIX = "STARTUP ";
+  private static final int SAMPLE_MEMBERS = 100;
+
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0 && args[0].equals("child")) {
+      child(args[1]);
+      return;
+    }
+    Map<String, String> options = Benchmarks.parseArgs(args);
+    int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+
+    Map<String, List<String>> variants = new LinkedHashMap<>();
+    variants.put("baseline", Arrays.asList("-Dspring.index.ignore=true", "local"));
+    variants.put("fast", Arrays.asList("-Dspring.index.ignore=false", "local,fast"));
+
+    Map<String, List<long[]>> results = new LinkedHashMap<>();
+    for (int run = 0; run < runs; run++) {
+      // 디스크 캐시 등의 영향을 나누도록 번갈아 실행한다.
+      for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+        long[] result = launch(variant.getValue().get(0), variant.getValue().get(1));
+        results.computeIfAbsent(variant.getKey(), k -> new ArrayList<>()).add(result);
+        System.out.printf("run %d %-8s ready=%,d ms  seeded=%,d ms%n", run + 1, variant.getKey(), result[0], result[1]);
+      }
+    }
+    for (Map.Entry<String, List<long[]>> entry : results.entrySet()) {
+      System.out.printf("%-8s median ready=%,d ms  seeded=%,d ms%n",
+          entry.getKey(), median(entry.getValue(), 0), median(entry.getValue(), 1));
+    }
+  }
+
+  private static long[] launch(String systemProperty, String profiles) throws Exception {
+    String[] values = Benchmarks.launch(StartupBenchmark.class, Arrays.asList("-Xmx512m", systemProperty),
+        Arrays.asList("child", profiles), RESULT_PREFIX).split(" ");
+    return new long[]{Long.parseLong(values[0]), Long.parseLong(values[1])};
+  }
+
+  private static void child(String profiles) throws Exception {
+    long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+    CountDownLatch ready = new CountDownLatch(1);
+    long[] readyAt = new long[1];
+    ApplicationListener<ApplicationEvent> readinessListener = event -> {
+      if (event instanceof AvailabilityChangeEvent
+          && ((AvailabilityChangeEvent<?>) event).getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+        readyAt[0] = System.currentTimeMillis();
+        ready.countDown();
+      }
+    };
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+        .profiles(profiles.split(","))
+        .properties(
+            "spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1",
+            "server.port=0",
+            // 기동 자체만 비교한다. 워밍업은 WarmupBenchmark 에서 잰다.
+            "member.warmup.enabled=false")
+        .listeners(readinessListener)
+        .run();
+    try {
+      if (!ready.await(1, TimeUnit.MINUTES)) {
+        throw new IllegalStateException("Application did not become ready");
+      }
+      // 샘플 데이터가 다 들어갈 때까지 (async 이면 readiness 이후)
+      JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+      long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+      while (jdbcTemplate.queryForObject("select count(*) from member", Long.class) < SAMPLE_MEMBERS) {
+        if (System.currentTimeMillis() > deadline) {
+          throw new IllegalStateException("Sample members were not seeded");
+        }
+        Thread.sleep(5);
+      }
+      long seededAt = System.currentTimeMillis();
+      System.out.println(RESULT_PREFIX + (readyAt[0] - jvmStart) + " " + (seededAt - jvmStart));
+    } finally {
+      context.close();
+    }
+  }
+
+  private static long median(List<long[]> values, int index) {
+    List<Long> column = new ArrayList<>();
+    values.forEach(v -> column.add(v[index]));
+    return Benchmarks.median(column);
+  }
+
+}
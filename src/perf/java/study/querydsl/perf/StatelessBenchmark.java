@@ -0,0 +1,97 @@
+package study.querydsl.perf;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberBatchRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 대량 조회/저장을 일반 영속성 컨텍스트(stateful)와 StatelessSession 으로 각각 실행해 비교한다.
+ * bench 프로필의 데이터 생성기로 members 건을 채운 뒤 측정한다.
+ * <pre>
+ * ./gradlew benchmark -Pbenchmark=StatelessBenchmark -PbenchmarkArgs="members=200000 inserts=50000"
+ * </pre>
+ */
+public class StatelessBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = Benchmarks.parseArgs(args);
+    int inserts = Integer.parseInt(options.getOrDefault("inserts", "50000"));
+    int batchSize = Integer.parseInt(options.getOrDefault("batch", String.valueOf(MemberBatchRepository.DEFAULT_BATCH_SIZE)));
+    int iterations = Integer.parseInt(options.getOrDefault("iterations", "3"));
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+        .profiles("bench")
+        .properties(
+            "spring.main.web-application-type=none",
+            "bench.data.members=" + options.getOrDefault("members", "200000"),
+            "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+            "spring.jpa.properties.hibernate.order_inserts=true")
+        .run();
+    try {
+      EntityManager em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+      TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+      MemberBatchRepository batchRepository = context.getBean(MemberBatchRepository.class);
+
+      Benchmarks.measure("read stateful", 1, iterations, () -> tx.execute(status -> {
+        AtomicLong ageSum = new AtomicLong();
+        List<Member> members = em.createQuery("select m from Member m left join fetch m.team", Member.class)
+            .getResultList();
+        members.forEach(m -> ageSum.addAndGet(m.getAge()));
+        return (long) members.size();
+      }));
+      Benchmarks.measure("read stateless", 1, iterations, () -> {
+        AtomicLong ageSum = new AtomicLong();
+        return batchRepository.scroll(member.isNotNull(), MemberBatchRepository.DEFAULT_FETCH_SIZE,
+            m -> ageSum.addAndGet(m.getAge()));
+      });
+
+      Benchmarks.measure("insert stateful", 0, iterations, () -> tx.execute(status -> {
+        List<Member> members = newMembers("stateful", inserts);
+        for (int i = 0; i < members.size(); i++) {
+          em.persist(members.get(i));
+          if ((i + 1) % batchSize == 0) {
+            em.flush();
+            em.clear();
+          }
+        }
+        return (long) members.size();
+      }));
+      Benchmarks.measure("insert stateless", 0, iterations,
+          () -> (long) batchRepository.insertAll(newMembers("stateless", inserts), batchSize).size());
+
+      Benchmarks.measure("update stateful", 0, iterations, () -> tx.execute(status -> {
+        List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+        members.forEach(m -> m.setAge(m.getAge() + 1));
+        em.flush();
+        return (long) members.size();
+      }));
+      Benchmarks.measure("update stateless", 0, iterations,
+          () -> batchRepository.updateAll(member.isNotNull(), batchSize, m -> m.setAge(m.getAge() + 1)));
+    } finally {
+      context.close();
+    }
+  }
+
+  private static List<Member> newMembers(String prefix, int count) {
+    List<Member> members = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      members.add(new Member(prefix + "-" + System.nanoTime() + "-" + i, i % 70 + 10));
+    }
+    return members;
+  }
+
+}
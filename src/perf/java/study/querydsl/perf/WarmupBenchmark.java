@@ -0,0 +1,109 @@
+package study.querydsl.perf;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 새 JVM 으로 애플리케이션을 띄우고 readiness 직후 /v1 ~ /v3 에 보낸 첫 요청의 지연 시간을 워밍업 유무로 비교한다.
+ * 워밍업을 켜면 readiness 까지의 시간은 늘어나는 대신 첫 요청이 빨라진다.
+ * <pre>
+ * ./gradlew benchmark -Pbenchmark=WarmupBenchmark -PbenchmarkArgs="runs=5"
+ * </pre>
+ */
+public class WarmupBenchmark {
+
+  private static final String RESULT_PREFIX = "WARMUP ";
+  // 워밍업 조건 값과 다른 값으로 보낸다. 같은 쿼리 모양이면 플랜을 재사용한다.
+  private static final String[] FIRST_REQUESTS = {
+      "/v1/members?username=member1",
+      "/v2/members?teamName=teamA&ageGoe=10&page=0&size=20",
+      "/v3/members?usernameContains=ber3&page=1&size=20&sort=age,desc"
+  };
+
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0 && args[0].equals("child")) {
+      child(Boolean.parseBoolean(args[1]));
+      return;
+    }
+    Map<String, String> options = Benchmarks.parseArgs(args);
+    int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+
+    Map<String, List<long[]>> results = new LinkedHashMap<>();
+    for (int run = 0; run < runs; run++) {
+      for (boolean warmup : new boolean[]{false, true}) {
+        String variant = warmup ? "warm" : "cold";
+        String[] values = Benchmarks.launch(WarmupBenchmark.class, Arrays.asList("-Xmx512m"),
+            Arrays.asList("child", String.valueOf(warmup)), RESULT_PREFIX).split(" ");
+        long[] result = Arrays.stream(values).mapToLong(Long::parseLong).toArray();
+        results.computeIfAbsent(variant, k -> new ArrayList<>()).add(result);
+        System.out.printf("run %d %s ready=%,d ms  first v1=%,d ms  v2=%,d ms  v3=%,d ms%n",
+            run + 1, variant, result[0], result[1], result[2], result[3]);
+      }
+    }
+    for (Map.Entry<String, List<long[]>> entry : results.entrySet()) {
+      System.out.printf("%s median ready=%,d ms  first v1=%,d ms  v2=%,d ms  v3=%,d ms%n", entry.getKey(),
+          median(entry.getValue(), 0), median(entry.getValue(), 1), median(entry.getValue(), 2),
+          median(entry.getValue(), 3));
+    }
+  }
+
+  private static void child(boolean warmup) throws Exception {
+    long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+    // run() 은 ApplicationRunner(워밍업)와 readiness 전환까지 끝난 뒤 반환된다.
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+        .profiles("local")
+        .properties(
+            "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1",
+            "server.port=0",
+            "member.warmup.enabled=" + warmup)
+        .run();
+    try {
+      long ready = System.currentTimeMillis() - jvmStart;
+      String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+      StringBuilder result = new StringBuilder(RESULT_PREFIX).append(ready);
+      for (String path : FIRST_REQUESTS) {
+        result.append(' ').append(firstRequestMillis(baseUrl + path));
+      }
+      System.out.println(result);
+    } finally {
+      context.close();
+    }
+  }
+
+  private static long firstRequestMillis(String url) throws Exception {
+    long start = System.nanoTime();
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    try {
+      if (connection.getResponseCode() != 200) {
+        throw new IllegalStateException("Unexpected status " + connection.getResponseCode() + " for " + url);
+      }
+      try (InputStream body = connection.getInputStream()) {
+        byte[] buffer = new byte[8192];
+        while (body.read(buffer) >= 0) {
+          // 응답을 끝까지 읽는다.
+        }
+      }
+    } finally {
+      connection.disconnect();
+    }
+    return (System.nanoTime() - start) / 1_000_000;
+  }
+
+  private static long median(List<long[]> values, int index) {
+    List<Long> column = new ArrayList<>();
+    values.forEach(v -> column.add(v[index]));
+    return Benchmarks.median(column);
+  }
+
+}
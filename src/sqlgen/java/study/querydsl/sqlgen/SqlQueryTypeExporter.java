@@ -0,0 +1,38 @@
+package study.querydsl.sqlgen;
+
+import com.querydsl.sql.codegen.MetaDataExporter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.Connection;
+
+/**
+ * 엔티티 매핑으로 in-memory H2 에 스키마를 만들고 member, team, member_username_gram 테이블의 SQL Q 타입을 생성한다.
+ * <pre>./gradlew generateQuerydslSql</pre>
+ */
+public class SqlQueryTypeExporter {
+
+  public static void main(String[] args) throws Exception {
+    File targetFolder = new File(args.length > 0 ? args[0] : "src/main/java");
+
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class).run(
+        "--spring.profiles.active=sqlgen",
+        "--spring.main.web-application-type=none",
+        "--spring.datasource.url=jdbc:h2:mem:sqlgen;DB_CLOSE_DELAY=-1",
+        "--spring.jpa.hibernate.ddl-auto=create",
+        "--cache.invalidation.enabled=false");
+         Connection connection = context.getBean(DataSource.class).getConnection()) {
+      MetaDataExporter exporter = new MetaDataExporter();
+      exporter.setPackageName("study.querydsl.sql");
+      exporter.setNamePrefix("S");
+      exporter.setSchemaPattern("PUBLIC");
+      exporter.setTableNamePattern("MEMBER,TEAM,MEMBER_USERNAME_GRAM");
+      exporter.setTargetFolder(targetFolder);
+      exporter.export(connection.getMetaData());
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+package study.querydsl.bench;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.readmodel.ReadModels;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 생성된 데이터의 분포를 확인한다. 테스트 DB 를 건드리지 않도록 별도 인메모리 H2 에 만든다.
+ */
+class BenchDataGeneratorTest {
+
+  static final int MEMBERS = 20_000;
+  static final int TEAMS = 100;
+
+  JdbcTemplate jdbcTemplate;
+  BenchDataProperties properties = new BenchDataProperties();
+
+  @BeforeEach
+  void before() {
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("create sequence hibernate_sequence");
+    jdbcTemplate.execute("create table team (id bigint primary key, name varchar(255))");
+    jdbcTemplate.execute("create table member (member_id bigint primary key, username varchar(255)," +
+        " age int not null, team_id bigint)");
+
+    properties.setMembers(MEMBERS);
+    properties.setTeams(TEAMS);
+    properties.setChunkSize(5_000);
+    properties.setRebuildReadModels(false);
+  }
+
+  @Test
+  void ageAndTeamAreIndependent() {
+    generate();
+
+    Map<String, Object> row = jdbcTemplate.queryForMap(
+        "select count(*) cnt, min(age) min_age, max(age) max_age, count(distinct team_id) teams," +
+        " (avg(cast(age as double) * team_id) - avg(cast(age as double)) * avg(cast(team_id as double)))" +
+        "   / (stddev_pop(age) * stddev_pop(team_id)) corr" +
+        " from member");
+    assertThat(((Number) row.get("CNT")).intValue()).isEqualTo(MEMBERS);
+    assertThat(row.get("MIN_AGE")).isEqualTo(properties.getMinAge());
+    assertThat(row.get("MAX_AGE")).isEqualTo(properties.getMaxAge());
+    assertThat(((Number) row.get("TEAMS")).intValue()).isEqualTo(TEAMS);
+    assertThat(Math.abs(((Number) row.get("CORR")).doubleValue())).isLessThan(0.05);
+  }
+
+  @Test
+  void uniformTeamsAreBalanced() {
+    generate();
+
+    List<Integer> counts = jdbcTemplate.queryForList(
+        "select count(*) from member group by team_id", Integer.class);
+    // 팀당 평균 200명
+    assertThat(counts).allSatisfy(count -> assertThat(count).isBetween(140, 260));
+  }
+
+  @Test
+  void normalAgeIsCenterHeavy() {
+    generate();
+    double uniformShare = middleThirdShare();
+
+    jdbcTemplate.execute("delete from member");
+    jdbcTemplate.execute("delete from team");
+    properties.setAgeDistribution(BenchDataProperties.AgeDistribution.NORMAL);
+    generate();
+    double normalShare = middleThirdShare();
+
+    // 균등 분포 3개 평균이 가운데 1/3 에 들어갈 확률은 2/3
+    assertThat(uniformShare).isBetween(0.30, 0.37);
+    assertThat(normalShare).isBetween(0.62, 0.72);
+  }
+
+  private void generate() {
+    TransactionTemplate transactionTemplate =
+        new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+    new BenchDataGenerator(jdbcTemplate, transactionTemplate, mock(ReadModels.class), properties).generate();
+  }
+
+  private double middleThirdShare() {
+    int range = properties.getMaxAge() - properties.getMinAge() + 1;
+    double from = properties.getMinAge() + range / 3.0;
+    double to = properties.getMinAge() + range * 2 / 3.0;
+    Double share = jdbcTemplate.queryForObject(
+        "select sum(case when age >= ? and age < ? then 1 else 0 end) * 1.0 / count(*) from member",
+        Double.class, from, to);
+    return share;
+  }
+
+}
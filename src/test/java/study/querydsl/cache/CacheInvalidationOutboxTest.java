@@ -0,0 +1,103 @@
+package study.querydsl.cache;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+// 같은 인메모리 H2 를 쓰는 두 노드(컨텍스트). 폴링은 스케줄 대신 직접 호출한다.
+class CacheInvalidationOutboxTest {
+
+  ConfigurableApplicationContext nodeA;
+  ConfigurableApplicationContext nodeB;
+
+  @BeforeEach
+  void start() {
+    String url = "jdbc:h2:mem:outbox-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    nodeA = node(url, "create");
+    nodeB = node(url, "none");
+    pollerOf(nodeA).poll();
+    pollerOf(nodeB).poll();
+  }
+
+  @AfterEach
+  void stop() {
+    nodeB.close();
+    nodeA.close();
+  }
+
+  @Test
+  void entityChangeInvalidatesOtherNode() {
+    Long memberId = inTransaction(nodeA, em -> {
+      Team team = new Team("teamA");
+      em.persist(team);
+      Member member = new Member("cache-member", 10, team);
+      em.persist(member);
+      return member.getId();
+    });
+    MemberTeamCache cacheB = nodeB.getBean(MemberTeamCache.class);
+    assertThat(cacheB.findMember(memberId).getAge()).isEqualTo(10);
+
+    inTransaction(nodeA, em -> {
+      em.find(Member.class, memberId).setAge(20);
+      return null;
+    });
+    assertThat(cacheB.findMember(memberId).getAge()).isEqualTo(10);
+
+    assertThat(pollerOf(nodeB).poll()).isPositive();
+    assertThat(cacheB.findMember(memberId).getAge()).isEqualTo(20);
+  }
+
+  @Test
+  void bulkUpdateInvalidatesRegion() {
+    Long memberId = inTransaction(nodeA, em -> {
+      Member member = new Member("cache-member", 10);
+      em.persist(member);
+      return member.getId();
+    });
+    MemberTeamCache cacheB = nodeB.getBean(MemberTeamCache.class);
+    assertThat(cacheB.findMember(memberId).getAge()).isEqualTo(10);
+
+    JPAQueryFactory queryFactory = nodeA.getBean(JPAQueryFactory.class);
+    long rows = nodeA.getBean(CacheInvalidationOutbox.class).execute(
+        queryFactory.update(member).set(member.age, 30).where(member.id.eq(memberId)), CacheRegions.MEMBER);
+    assertThat(rows).isEqualTo(1);
+
+    pollerOf(nodeB).poll();
+    assertThat(cacheB.findMember(memberId).getAge()).isEqualTo(30);
+  }
+
+  private static ConfigurableApplicationContext node(String url, String ddlAuto) {
+    return new SpringApplicationBuilder(QuerydslApplication.class).run(
+        "--spring.profiles.active=test",
+        "--spring.main.web-application-type=none",
+        "--spring.datasource.url=" + url,
+        "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+        "--cache.invalidation.poll-interval=1h");
+  }
+
+  private static CacheInvalidationPoller pollerOf(ConfigurableApplicationContext node) {
+    return node.getBean(CacheInvalidationPoller.class);
+  }
+
+  private static <T> T inTransaction(ConfigurableApplicationContext node, Function<EntityManager, T> work) {
+    EntityManager em = SharedEntityManagerCreator.createSharedEntityManager(node.getBean(EntityManagerFactory.class));
+    return node.getBean(TransactionTemplate.class).execute(status -> work.apply(em));
+  }
+
+}
@@ -0,0 +1,104 @@
+package study.querydsl.controller;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemberQueryGuardTest {
+
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  MemberQueryGuard guard = new MemberQueryGuard(new MemberQueryGuardProperties(), meterRegistry, mock(DataSource.class));
+
+  @Test
+  void clampToMaxPageSize() {
+    Pageable limited = guard.limit(PageRequest.of(2, 200), "v2");
+
+    // 페이지 번호가 아니라 요청한 offset 을 유지한다.
+    assertThat(limited.getOffset()).isEqualTo(400);
+    assertThat(limited.getPageSize()).isEqualTo(100);
+    assertThat(meterRegistry.get("member.guard.clamped").tag("reason", "limit").counter().count()).isEqualTo(1);
+
+    Pageable small = PageRequest.of(0, 20);
+    assertThat(guard.limit(small, "v2")).isSameAs(small);
+  }
+
+  @Test
+  void limitCursorSize() {
+    assertThat(guard.limitSize(20, "teams-cursor")).isEqualTo(20);
+    assertThat(guard.limitSize(500, "teams-cursor")).isEqualTo(100);
+
+    assertThatThrownBy(() -> guard.limitSize(0, "teams-cursor"))
+        .isInstanceOf(ResponseStatusException.class)
+        .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+    assertThatThrownBy(() -> guard.limitSize(-1, "teams-cursor"))
+        .isInstanceOf(ResponseStatusException.class);
+  }
+
+  @Test
+  void resultLimit() {
+    assertThat(guard.resultLimit("v1")).isEqualTo(1000);
+  }
+
+  @Test
+  void shrinkWithSaturation() {
+    assertThat(guard.allowedPageSize(0.0)).isEqualTo(100);
+    assertThat(guard.allowedPageSize(0.5)).isEqualTo(100);
+    assertThat(guard.allowedPageSize(0.75)).isEqualTo(55);
+    assertThat(guard.allowedPageSize(1.0)).isEqualTo(10);
+  }
+
+  @Test
+  void shrinkWithHikariPoolSaturation() throws Exception {
+    HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+    when(pool.getActiveConnections()).thenReturn(8);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MemberQueryGuard saturated = new MemberQueryGuard(new MemberQueryGuardProperties(), registry, hikari(pool));
+
+    // 8 / 10 사용 중 -> 100 - 90 * 0.6 = 46
+    Pageable limited = saturated.limit(PageRequest.of(2, 50), "v3");
+    assertThat(limited.getPageSize()).isEqualTo(46);
+    assertThat(limited.getOffset()).isEqualTo(100);
+    assertThat(saturated.resultLimit("v1")).isEqualTo(460);
+    assertThat(registry.get("member.guard.clamped").tag("reason", "saturation").tag("endpoint", "v3")
+        .counter().count()).isEqualTo(1);
+    assertThat(registry.get("member.guard.pool.saturation").gauge().value()).isEqualTo(0.8);
+  }
+
+  @Test
+  void rejectWhenThreadsAwaitConnection() throws Exception {
+    HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+    when(pool.getActiveConnections()).thenReturn(10);
+    when(pool.getThreadsAwaitingConnection()).thenReturn(4);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MemberQueryGuard saturated = new MemberQueryGuard(new MemberQueryGuardProperties(), registry, hikari(pool));
+
+    assertThatThrownBy(() -> saturated.limit(PageRequest.of(0, 20), "v2"))
+        .isInstanceOf(ResponseStatusException.class)
+        .extracting("status").isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThatThrownBy(() -> saturated.resultLimit("v1"))
+        .isInstanceOf(ResponseStatusException.class);
+    assertThat(registry.get("member.guard.rejected").tag("endpoint", "v2").counter().count()).isEqualTo(1);
+  }
+
+  private static DataSource hikari(HikariPoolMXBean pool) throws Exception {
+    HikariDataSource dataSource = mock(HikariDataSource.class);
+    when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+    when(dataSource.unwrap(HikariDataSource.class)).thenReturn(dataSource);
+    when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+    when(dataSource.getMaximumPoolSize()).thenReturn(10);
+    return dataSource;
+  }
+
+}
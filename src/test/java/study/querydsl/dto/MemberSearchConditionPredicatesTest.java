@@ -0,0 +1,54 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.types.Predicate;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.dto.MemberSearchConditionPredicates.AGE_GOE;
+import static study.querydsl.dto.MemberSearchConditionPredicates.TEAM_NAME;
+import static study.querydsl.dto.MemberSearchConditionPredicates.USERNAME;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+class MemberSearchConditionPredicatesTest {
+
+  @Test
+  void emptyCondition() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername(" ");
+
+    assertThat(MemberSearchConditionPredicates.shapeOf(condition)).isZero();
+    assertThat(MemberSearchConditionPredicates.toPredicates(condition)).isEmpty();
+    assertThat(MemberSearchConditionPredicates.describe(0)).isEqualTo("none");
+  }
+
+  @Test
+  void toPredicates() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("member1");
+    condition.setTeamName("teamA");
+    condition.setAgeGoe(10);
+
+    int shape = MemberSearchConditionPredicates.shapeOf(condition);
+    assertThat(shape).isEqualTo(USERNAME | TEAM_NAME | AGE_GOE);
+    assertThat(MemberSearchConditionPredicates.describe(shape)).isEqualTo("username,teamName,ageGoe");
+
+    Predicate[] predicates = MemberSearchConditionPredicates.toPredicates(condition);
+    assertThat(predicates).containsExactly(
+        member.username.eq("member1"),
+        team.name.eq("teamA"),
+        member.age.goe(10));
+  }
+
+  @Test
+  void sameShapeForDifferentValues() {
+    MemberSearchCondition first = new MemberSearchCondition();
+    first.setAgeGoe(10);
+    MemberSearchCondition second = new MemberSearchCondition();
+    second.setAgeGoe(40);
+
+    assertThat(MemberSearchConditionPredicates.shapeOf(first))
+        .isEqualTo(MemberSearchConditionPredicates.shapeOf(second));
+  }
+
+}
@@ -0,0 +1,54 @@
+package study.querydsl.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberTeamColumnsTest {
+
+  @Test
+  void dictionaryEncodesTeamNames() {
+    MemberTeamColumns.Builder builder = MemberTeamColumns.builder(false);
+    // 초기 용량(1024)보다 많이 넣어 배열이 늘어나는 경우도 확인한다.
+    for (int i = 0; i < 3000; i++) {
+      builder.add(i + 1, "member" + i, i % 70, (long) (i % 3 + 1), "team" + (i % 3));
+    }
+    builder.add(3001, "member-noteam", 30, null, null);
+
+    MemberTeamColumns columns = builder.build();
+
+    assertThat(columns.size()).isEqualTo(3001);
+    assertThat(columns.teamNameCount()).isEqualTo(3);
+    assertThat(columns.hasUsernames()).isFalse();
+    assertThat(columns.memberId(2999)).isEqualTo(3000);
+    assertThat(columns.age(2999)).isEqualTo(2999 % 70);
+    assertThat(columns.teamId(2999)).isEqualTo(2999 % 3 + 1);
+    assertThat(columns.teamName(2999)).isEqualTo("team" + (2999 % 3));
+    assertThat(columns.teamId(3000)).isEqualTo(MemberTeamColumns.NO_TEAM);
+    assertThat(columns.teamName(3000)).isNull();
+    assertThatThrownBy(() -> columns.username(0)).isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> columns.memberId(3001)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  void forEachAndToDto() {
+    MemberTeamColumns columns = MemberTeamColumns.builder(true)
+        .add(1, "member1", 10, 100L, "teamA")
+        .add(2, "member2", 20, null, null)
+        .build();
+
+    List<String> visited = new ArrayList<>();
+    columns.forEach((memberId, username, age, teamId, teamName) ->
+        visited.add(memberId + ":" + username + ":" + age + ":" + teamId + ":" + teamName));
+
+    assertThat(visited).containsExactly("1:member1:10:100:teamA", "2:member2:20:0:null");
+    assertThat(columns.toDto(0)).usingRecursiveComparison()
+        .isEqualTo(new MemberTeamDto(1L, "member1", 10, 100L, "teamA"));
+    assertThat(columns.toDto(1).getTeamId()).isNull();
+  }
+
+}
@@ -0,0 +1,55 @@
+package study.querydsl.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvChannelWriterTest {
+
+  @TempDir Path dir;
+
+  @Test
+  void writeRows() throws IOException {
+    Path path = dir.resolve("members.csv");
+    // 버퍼보다 긴 행도 나눠서 써야 한다.
+    try (CsvChannelWriter writer = CsvChannelWriter.open(path, false, ByteBuffer.allocateDirect(16))) {
+      writer.writeRow(1L, "member1", 10, 2L, "teamA");
+      writer.writeRow(3L, "회원, \"둘\"", 20, null, null);
+    }
+
+    assertThat(new String(Files.readAllBytes(path), StandardCharsets.UTF_8))
+        .isEqualTo("1,member1,10,2,teamA\n3,\"회원, \"\"둘\"\"\",20,,\n");
+  }
+
+  @Test
+  void writeGzip() throws IOException {
+    Path path = dir.resolve("members.csv.gz");
+    try (CsvChannelWriter writer = CsvChannelWriter.open(path, true, ByteBuffer.allocateDirect(1024))) {
+      for (int i = 0; i < 1000; i++) {
+        writer.writeRow(i, "member" + i);
+      }
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+      byte[] chunk = new byte[4096];
+      for (int n; (n = in.read(chunk)) > 0; ) {
+        out.write(chunk, 0, n);
+      }
+    }
+    String csv = new String(out.toByteArray(), StandardCharsets.UTF_8);
+    assertThat(csv).startsWith("0,member0\n").endsWith("999,member999\n");
+    assertThat(csv.split("\n")).hasSize(1000);
+  }
+
+}
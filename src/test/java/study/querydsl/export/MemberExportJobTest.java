@@ -0,0 +1,111 @@
+package study.querydsl.export;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 구간 조회가 다른 스레드의 트랜잭션에서 돌기 때문에 데이터를 커밋해야 한다. 이 테스트 전용 인메모리 DB 를 쓴다.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:member-export-test;DB_CLOSE_DELAY=-1")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MemberExportJobTest {
+
+  @Autowired MemberExportJob exportJob;
+  @Autowired EntityManager em;
+  @Autowired TransactionTemplate transactionTemplate;
+
+  @TempDir Path dir;
+
+  // id 순서대로 기대하는 CSV 행
+  List<String> expectedRows = new ArrayList<>();
+  long minId;
+  long maxId;
+
+  @BeforeAll
+  void before() {
+    transactionTemplate.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      Team teamB = new Team("teamB");
+      em.persist(teamA);
+      em.persist(teamB);
+      List<Member> members = new ArrayList<>();
+      for (int i = 0; i < 23; i++) {
+        Team team = i % 5 == 4 ? null : (i % 2 == 0 ? teamA : teamB);
+        Member member = new Member("member" + i, 10 + i, team);
+        em.persist(member);
+        members.add(member);
+      }
+      em.flush();
+      for (Member member : members) {
+        Team team = member.getTeam();
+        expectedRows.add(member.getId() + "," + member.getUsername() + "," + member.getAge() + ","
+            + (team == null ? "" : team.getId()) + "," + (team == null ? "" : team.getName()));
+      }
+      minId = members.get(0).getId();
+      maxId = members.get(members.size() - 1).getId();
+    });
+  }
+
+  @Test
+  void exportInIdOrderAcrossRanges() throws IOException {
+    Path path = dir.resolve("members.csv");
+    // 구간 5 개 이상을 2 개 스레드가 동시에 읽는다. 버퍼도 행보다 작게 잡는다.
+    ExportOptions options = ExportOptions.builder()
+        .rangeSize(5)
+        .parallelism(2)
+        .bufferSize(64)
+        .build();
+
+    ExportResult result = exportJob.export(path, options);
+
+    assertThat(result.getRows()).isEqualTo(23);
+    assertThat(result.getRanges()).isEqualTo((int) ((maxId - minId) / 5 + 1)).isGreaterThanOrEqualTo(5);
+    List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+    assertThat(lines.get(0)).isEqualTo("memberId,username,age,teamId,teamName");
+    assertThat(lines.subList(1, lines.size())).containsExactlyElementsOf(expectedRows);
+  }
+
+  @Test
+  void exportGzipWithSingleRange() throws IOException {
+    Path path = dir.resolve("members.csv.gz");
+    ExportOptions options = ExportOptions.builder()
+        .rangeSize(1_000)
+        .parallelism(1)
+        .gzip(true)
+        .build();
+
+    ExportResult result = exportJob.export(path, options);
+
+    assertThat(result.getRows()).isEqualTo(23);
+    assertThat(result.getRanges()).isEqualTo(1);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+      byte[] chunk = new byte[4096];
+      for (int n; (n = in.read(chunk)) > 0; ) {
+        out.write(chunk, 0, n);
+      }
+    }
+    String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+    assertThat(lines).hasSize(24);
+    assertThat(lines).endsWith(expectedRows.toArray(new String[0]));
+  }
+
+}
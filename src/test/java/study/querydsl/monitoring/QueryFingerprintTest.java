@@ -0,0 +1,25 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryFingerprintTest {
+
+  @Test
+  void stripLiteralsAndParameters() {
+    assertThat(QueryFingerprint.of("select member0_.member_id as col_0_0_ from member member0_\n" +
+        "  where member0_.username='it''s'  and member0_.age>=10 limit ?"))
+        .isEqualTo("select member0_.member_id as col_0_0_ from member member0_" +
+            " where member0_.username=? and member0_.age>=? limit ?");
+  }
+
+  @Test
+  void collapseInList() {
+    assertThat(QueryFingerprint.of("select * from member where member_id in (?, ?, ?, ?)"))
+        .isEqualTo(QueryFingerprint.of("SELECT * FROM member WHERE member_id IN (?,?)"))
+        .isEqualTo(QueryFingerprint.of("select * from member where member_id in ( ? )"))
+        .isEqualTo("select * from member where member_id in (?+)");
+  }
+
+}
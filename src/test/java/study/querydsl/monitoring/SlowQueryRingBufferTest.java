@@ -0,0 +1,32 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryRingBufferTest {
+
+  @Test
+  void keepsMostRecent() {
+    SlowQueryRingBuffer buffer = new SlowQueryRingBuffer(3);
+    assertThat(buffer.capacity()).isEqualTo(4);
+
+    for (int i = 0; i < 6; i++) {
+      buffer.add(slowQuery(buffer.nextSequence(), "select " + i));
+    }
+    assertThat(buffer.snapshot()).extracting("sql")
+        .containsExactly("select 2", "select 3", "select 4", "select 5");
+
+    buffer.clear();
+    assertThat(buffer.snapshot()).isEmpty();
+    buffer.add(slowQuery(buffer.nextSequence(), "select 6"));
+    assertThat(buffer.snapshot()).extracting("sql").containsExactly("select 6");
+  }
+
+  private static SlowQuery slowQuery(long sequence, String sql) {
+    return new SlowQuery(sequence, Instant.now(), 150.0, 1, sql, "repository.MemberJpaRepository.search", null);
+  }
+
+}
@@ -0,0 +1,98 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+// StatelessSession 이 테스트 트랜잭션의 커넥션을 쓰므로 롤백으로 정리된다.
+@SpringBootTest
+@Transactional
+class MemberBatchRepositoryTest {
+
+  private static final String PREFIX = "batch-test-";
+
+  @Autowired EntityManager em;
+  @Autowired MemberBatchRepository memberBatchRepository;
+  @Autowired JPAQueryFactory queryFactory;
+  @Autowired PlatformTransactionManager transactionManager;
+  @Autowired MemberReadModelRepository memberReadModelRepository;
+  @Autowired TeamStatsRepository teamStatsRepository;
+
+  @Test
+  void insertScrollUpdate() {
+    List<Long> ids = memberBatchRepository.insertAll(Arrays.asList(
+        new Member(PREFIX + "1", 10),
+        new Member(PREFIX + "2", 20),
+        new Member(PREFIX + "3", 30)), 2);
+    assertThat(ids).hasSize(3).doesNotContainNull();
+
+    long updated = memberBatchRepository.updateAll(member.username.startsWith(PREFIX), 2,
+        m -> m.setAge(m.getAge() + 1));
+    assertThat(updated).isEqualTo(3);
+
+    List<Integer> ages = new ArrayList<>();
+    long count = memberBatchRepository.scroll(member.username.startsWith(PREFIX),
+        MemberBatchRepository.DEFAULT_FETCH_SIZE, m -> ages.add(m.getAge()));
+    assertThat(count).isEqualTo(3);
+    assertThat(ages).containsExactlyInAnyOrder(11, 21, 31);
+  }
+
+  @Test
+  void readModelsFollowEachBatch() {
+    Team team = new Team(PREFIX + "team");
+    em.persist(team);
+    memberBatchRepository.insertAll(Arrays.asList(
+        new Member(PREFIX + "1", 10, team),
+        new Member(PREFIX + "2", 20, team),
+        new Member(PREFIX + "3", 30, team)), 2);
+
+    // 최소/최대 나이가 바뀌는 수정
+    memberBatchRepository.updateAll(member.username.startsWith(PREFIX), 2, m -> m.setAge(m.getAge() * 2));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName(PREFIX + "team");
+    assertThat(memberReadModelRepository.search(condition)).extracting("age").containsExactlyInAnyOrder(20, 40, 60);
+
+    TeamStatsDto stats = teamStatsRepository.findAll().stream()
+        .filter(s -> s.getTeamId().equals(team.getId()))
+        .findFirst().orElseThrow(IllegalStateException::new);
+    assertThat(stats.getMemberCount()).isEqualTo(3);
+    assertThat(stats.getAverageAge()).isEqualTo(40.0);
+    assertThat(stats.getMinAge()).isEqualTo(20);
+    assertThat(stats.getMaxAge()).isEqualTo(60);
+  }
+
+  @Test
+  void rollsBackWithCallerTransaction() {
+    TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+    requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    requiresNew.executeWithoutResult(status -> {
+      memberBatchRepository.insertAll(Arrays.asList(
+          new Member(PREFIX + "1", 10),
+          new Member(PREFIX + "2", 20),
+          new Member(PREFIX + "3", 30)), 1);
+      // 배치 중간 이후의 실패
+      status.setRollbackOnly();
+    });
+
+    assertThat(queryFactory.selectFrom(member).where(member.username.startsWith(PREFIX)).fetch()).isEmpty();
+  }
+
+}
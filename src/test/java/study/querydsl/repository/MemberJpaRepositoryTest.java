@@ -10,6 +10,7 @@ import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -103,4 +104,24 @@ class MemberJpaRepositoryTest {
     assertThat(result).extracting("username").containsExactly("member4");
   }
 
-}
\ No newline at end of file
+  @Test
+  void findAllByIds() {
+    Member member1 = new Member("member1", 10);
+    Member member2 = new Member("member2", 20);
+    Member member3 = new Member("member3", 30);
+    memberJpaRepository.save(member1);
+    memberJpaRepository.save(member2);
+    memberJpaRepository.save(member3);
+    em.flush();
+    em.clear();
+
+    // member2 는 영속성 컨텍스트에 있으므로 쿼리 대상에서 빠진다.
+    Member managed = memberJpaRepository.findById(member2.getId()).get();
+
+    List<Member> result = memberJpaRepository.findAllByIds(
+        Arrays.asList(member3.getId(), member2.getId(), member1.getId(), member3.getId(), -1L));
+    assertThat(result).extracting("username").containsExactly("member3", "member2", "member1");
+    assertThat(result.get(1)).isSameAs(managed);
+  }
+
+}
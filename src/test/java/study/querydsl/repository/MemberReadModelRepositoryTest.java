@@ -0,0 +1,136 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.readmodel.ReadModels;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class MemberReadModelRepositoryTest {
+
+  @Autowired EntityManager em;
+  @Autowired JPAQueryFactory queryFactory;
+  @Autowired MemberReadModelRepository memberReadModelRepository;
+  @Autowired ReadModels readModels;
+
+  Team teamA;
+  Team teamB;
+
+  @BeforeEach
+  void before() {
+    teamA = new Team("teamA");
+    teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30, teamB));
+    em.persist(new Member("member4", 40, teamB));
+  }
+
+  @Test
+  void search() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(35);
+    condition.setAgeLoe(40);
+    condition.setTeamName("teamB");
+
+    List<MemberTeamDto> result = memberReadModelRepository.search(condition);
+    assertThat(result).extracting("username").containsExactly("member4");
+  }
+
+  @Test
+  void searchPageComplex() {
+    Page<MemberTeamDto> result = memberReadModelRepository.searchPageComplex(
+        new MemberSearchCondition(), PageRequest.of(0, 3));
+    assertThat(result.getContent()).hasSize(3);
+    assertThat(result.getTotalElements()).isEqualTo(4);
+  }
+
+  @Test
+  void teamRenameAndMemberMove() {
+    teamA.setName("teamC");
+    Member member1 = queryFactory.selectFrom(member).where(member.username.eq("member1")).fetchOne();
+    member1.setTeam(teamB);
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamC");
+    assertThat(memberReadModelRepository.search(condition)).extracting("username").containsExactly("member2");
+
+    condition.setTeamName("teamB");
+    assertThat(memberReadModelRepository.search(condition))
+        .extracting("username")
+        .containsExactlyInAnyOrder("member1", "member3", "member4");
+  }
+
+  @Test
+  void bulkUpdate() {
+    em.flush();
+    queryFactory
+        .update(member)
+        .set(member.age, member.age.add(1))
+        .execute();
+    queryFactory
+        .update(team)
+        .set(team.name, "teamZ")
+        .where(team.id.eq(teamB.getId()))
+        .execute();
+
+    // 벌크 연산은 이벤트가 없으므로 직접 맞춘다.
+    readModels.rebuild();
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamZ");
+    assertThat(memberReadModelRepository.search(condition)).extracting("age").containsExactlyInAnyOrder(31, 41);
+  }
+
+  @Test
+  void bulkThroughReadModels() {
+    readModels.updateMembers(member.age.goe(30), update -> update.set(member.age, member.age.add(1)));
+    readModels.updateTeams(team.id.eq(teamB.getId()), update -> update.set(team.name, "teamZ"));
+    readModels.deleteMembers(member.username.eq("member1"));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamZ");
+    assertThat(memberReadModelRepository.search(condition)).extracting("age").containsExactlyInAnyOrder(31, 41);
+    condition.setTeamName("teamA");
+    assertThat(memberReadModelRepository.search(condition)).extracting("username").containsExactly("member2");
+  }
+
+  @Test
+  void bulkTeamRename() {
+    em.flush();
+    queryFactory
+        .update(team)
+        .set(team.name, "teamZ")
+        .where(team.id.eq(teamA.getId()))
+        .execute();
+    readModels.refreshTeams(Collections.singletonList(teamA.getId()));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamZ");
+    assertThat(memberReadModelRepository.search(condition))
+        .extracting("username")
+        .containsExactlyInAnyOrder("member1", "member2");
+  }
+
+}
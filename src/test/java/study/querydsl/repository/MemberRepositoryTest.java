@@ -5,16 +5,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.UnsupportedSortException;
 
 import javax.persistence.EntityManager;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static study.querydsl.entity.QMember.member;
 
 @SpringBootTest
@@ -123,4 +126,70 @@ class MemberRepositoryTest {
       System.out.println("member = " + member);
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  void searchUsernamePrefixAndSubstring() {
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    em.persist(new Member("alice", 10, teamA));
+    em.persist(new Member("alicia", 20, teamA));
+    em.persist(new Member("bob", 30, teamA));
+    em.persist(new Member("malice", 40, teamA));
+
+    MemberSearchCondition startsWith = new MemberSearchCondition();
+    startsWith.setUsernameStartsWith("ali");
+    assertThat(memberRepository.search(startsWith))
+        .extracting("username")
+        .containsExactlyInAnyOrder("alice", "alicia");
+
+    MemberSearchCondition contains = new MemberSearchCondition();
+    contains.setUsernameContains("lice");
+    assertThat(memberRepository.search(contains))
+        .extracting("username")
+        .containsExactlyInAnyOrder("alice", "malice");
+
+    // 3글자 미만은 trigram 없이 like 로 처리
+    contains.setUsernameContains("ob");
+    assertThat(memberRepository.search(contains))
+        .extracting("username")
+        .containsExactly("bob");
+
+    // 이름 변경 시 trigram 도 갱신된다
+    Member bob = memberRepository.findByUsername("bob").get(0);
+    bob.setUsername("bobalice");
+    contains.setUsernameContains("lice");
+    assertThat(memberRepository.search(contains))
+        .extracting("username")
+        .containsExactlyInAnyOrder("alice", "malice", "bobalice");
+  }
+
+  @Test
+  void searchPageSorted() {
+    Team team = new Team("sortTeam");
+    em.persist(team);
+    em.persist(new Member("sort1", 20, team));
+    em.persist(new Member("sort2", 40, team));
+    em.persist(new Member("sort3", 20, team));
+    em.persist(new Member("sort4", 30, team));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("sortTeam");
+    Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition,
+        PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age")));
+
+    // 같은 나이는 id 역순
+    assertThat(result.getContent())
+        .extracting("username")
+        .containsExactly("sort2", "sort4", "sort3");
+    assertThat(result.getTotalElements()).isEqualTo(4);
+  }
+
+  @Test
+  void searchPageUnsupportedSort() {
+    PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("teamName"));
+
+    assertThatThrownBy(() -> memberRepository.searchPageSimple(new MemberSearchCondition(), pageRequest))
+        .isInstanceOf(UnsupportedSortException.class);
+  }
+
+}
@@ -0,0 +1,155 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchConditionPredicates;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.UnsupportedSortException;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberSqlRepositoryTest {
+
+  @Autowired EntityManager em;
+  @Autowired MemberRepository memberRepository;
+  @Autowired MemberSqlRepository memberSqlRepository;
+
+  @BeforeEach
+  void setUp() {
+    Team teamA = new Team("sql-teamA");
+    Team teamB = new Team("sql-teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    for (int i = 0; i < 10; i++) {
+      em.persist(new Member("sql-member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+    }
+    em.persist(new Member("sql-member-noteam", 95));
+    // SQL 쿼리는 영속성 컨텍스트를 거치지 않으므로 먼저 반영한다.
+    em.flush();
+    em.clear();
+  }
+
+  @Test
+  void searchWithLimit() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsernameStartsWith("sql-");
+
+    List<MemberTeamDto> result = memberSqlRepository.search(condition, 3);
+
+    assertThat(result).extracting("username").containsExactly("sql-member0", "sql-member1", "sql-member2");
+    assertThat(result).usingRecursiveFieldByFieldElementComparator()
+        .containsExactlyElementsOf(memberRepository.search(condition, 3));
+  }
+
+  @Test
+  void searchMatchesJpa() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsernameContains("member");
+    condition.setAgeGoe(30);
+    condition.setAgeLoe(90);
+    condition.setTeamName("sql-teamB");
+
+    List<MemberTeamDto> result = memberSqlRepository.search(condition, 100);
+
+    assertThat(result).extracting("username").containsExactly("sql-member3", "sql-member5", "sql-member7", "sql-member9");
+    assertThat(result).usingRecursiveFieldByFieldElementComparator()
+        .containsExactlyElementsOf(memberRepository.search(condition, 100));
+  }
+
+  @Test
+  void everyConditionShapeMatchesJpa() {
+    PageRequest pageRequest = PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "age"));
+    for (int shape = 0; shape < 1 << 6; shape++) {
+      MemberSearchCondition condition = conditionOf(shape);
+      String shapeName = MemberSearchConditionPredicates.describe(shape);
+
+      assertThat(memberSqlRepository.search(condition, 100))
+          .as(shapeName)
+          .usingRecursiveFieldByFieldElementComparator()
+          .containsExactlyElementsOf(memberRepository.search(condition, 100));
+      Page<MemberTeamDto> page = memberSqlRepository.searchPageSimple(condition, pageRequest);
+      Page<MemberTeamDto> expected = memberRepository.searchPageSimple(condition, pageRequest);
+      assertThat(page.getTotalElements()).as(shapeName).isEqualTo(expected.getTotalElements());
+      assertThat(page.getContent())
+          .as(shapeName)
+          .usingRecursiveFieldByFieldElementComparator()
+          .containsExactlyElementsOf(expected.getContent());
+    }
+  }
+
+  @Test
+  void searchWithoutTeam() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("sql-member-noteam");
+
+    List<MemberTeamDto> result = memberSqlRepository.search(condition, 10);
+
+    assertThat(result).hasSize(1);
+    assertThat(result.get(0).getTeamId()).isNull();
+    assertThat(result.get(0).getTeamName()).isNull();
+  }
+
+  @Test
+  void searchPageComplex() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsernameStartsWith("sql-");
+    PageRequest pageRequest = PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+    Page<MemberTeamDto> result = memberSqlRepository.searchPageComplex(condition, pageRequest);
+    Page<MemberTeamDto> expected = memberRepository.searchPageComplex(condition, pageRequest);
+
+    assertThat(result.getTotalElements()).isEqualTo(11).isEqualTo(expected.getTotalElements());
+    assertThat(result.getContent()).extracting("username")
+        .containsExactly("sql-member7", "sql-member6", "sql-member5");
+    assertThat(result.getContent()).usingRecursiveFieldByFieldElementComparator()
+        .containsExactlyElementsOf(expected.getContent());
+  }
+
+  @Test
+  void searchPageUnsupportedSort() {
+    PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("teamName"));
+
+    assertThatThrownBy(() -> memberSqlRepository.searchPageSimple(new MemberSearchCondition(), pageRequest))
+        .isInstanceOf(UnsupportedSortException.class);
+  }
+
+  // 비트 순서는 MemberSearchConditionPredicates 의 상수와 같다. 값은 setUp() 의 데이터에 맞춰 결과가 비지 않게 한다.
+  private static MemberSearchCondition conditionOf(int shape) {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    if ((shape & MemberSearchConditionPredicates.USERNAME) != 0) {
+      condition.setUsername("sql-member3");
+    }
+    if ((shape & MemberSearchConditionPredicates.USERNAME_STARTS_WITH) != 0) {
+      condition.setUsernameStartsWith("sql-member");
+    }
+    if ((shape & MemberSearchConditionPredicates.USERNAME_CONTAINS) != 0) {
+      condition.setUsernameContains("member");
+    }
+    if ((shape & MemberSearchConditionPredicates.TEAM_NAME) != 0) {
+      condition.setTeamName("sql-teamB");
+    }
+    if ((shape & MemberSearchConditionPredicates.AGE_GOE) != 0) {
+      condition.setAgeGoe(20);
+    }
+    if ((shape & MemberSearchConditionPredicates.AGE_LOE) != 0) {
+      condition.setAgeLoe(70);
+    }
+    return condition;
+  }
+
+}
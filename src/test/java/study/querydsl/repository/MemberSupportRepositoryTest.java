@@ -1,16 +1,23 @@
 package study.querydsl.repository;
 
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.QueryOptions;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -44,4 +51,143 @@ class MemberSupportRepositoryTest {
     assertThat(result.getNumberOfElements()).isEqualTo(4);
   }
 
-}
\ No newline at end of file
+  @Test
+  void applyPaginationWithFetchPlan() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    for (int i = 0; i < 10; i++) {
+      em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+    }
+    em.flush();
+    em.clear();
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    PageRequest pageRequest = PageRequest.of(1, 3, Sort.by("age"));
+
+    Page<Member> withTeam = memberSupportRepository.applyPagination(condition, pageRequest, Member.WITH_TEAM);
+    assertThat(withTeam.getContent()).extracting("username").containsExactly("member3", "member4", "member5");
+    assertThat(withTeam.getContent()).allMatch(m -> Hibernate.isInitialized(m.getTeam()));
+    em.clear();
+
+    // team.members 컬렉션이 포함돼도 페이지가 DB 에서 잘린다.
+    Page<Member> withMembers = memberSupportRepository.applyPagination(condition, pageRequest,
+        Member.WITH_TEAM_MEMBERS);
+    assertThat(withMembers.getContent()).extracting("username").containsExactly("member3", "member4", "member5");
+    assertThat(withMembers.getTotalElements()).isEqualTo(10);
+    assertThat(withMembers.getContent())
+        .allMatch(m -> Hibernate.isInitialized(m.getTeam()) && Hibernate.isInitialized(m.getTeam().getMembers()));
+  }
+
+  @Test
+  void searchMemberWithFetchPlan() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    for (int i = 0; i < 6; i++) {
+      em.persist(new Member("plan-member" + i, i, i % 2 == 0 ? teamA : teamB));
+    }
+    em.flush();
+    em.clear();
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsernameStartsWith("plan-");
+    List<Member> withTeam = memberSupportRepository.searchMember(condition, Member.WITH_TEAM);
+    assertThat(withTeam).hasSize(6).allMatch(m -> Hibernate.isInitialized(m.getTeam()));
+    em.clear();
+
+    // team 조건이 있어도, team.members 컬렉션을 가져와도 회원은 한 번씩만 나온다.
+    condition.setTeamName("teamA");
+    List<Member> withMembers = memberSupportRepository.searchMember(condition, Member.WITH_TEAM_MEMBERS);
+    assertThat(withMembers).extracting("username")
+        .containsExactlyInAnyOrder("plan-member0", "plan-member2", "plan-member4");
+    assertThat(withMembers)
+        .allMatch(m -> Hibernate.isInitialized(m.getTeam()) && Hibernate.isInitialized(m.getTeam().getMembers()));
+  }
+
+  @Test
+  void streamSearch() {
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    for (int i = 0; i < 30; i++) {
+      em.persist(new Member("stream-member" + i, i, teamA));
+    }
+    em.flush();
+    em.clear();
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsernameStartsWith("stream-");
+
+    // forward-only 커서로 fetch size 보다 많은 행을 읽어도 순서와 건수가 같다.
+    List<String> streamed = new ArrayList<>();
+    long count = memberSupportRepository.streamSearch(condition,
+        QueryOptions.STREAM.toBuilder().fetchSize(7).build(), dto -> streamed.add(dto.getUsername()));
+    assertThat(count).isEqualTo(30);
+    assertThat(streamed).hasSize(30).startsWith("stream-member0", "stream-member1");
+
+    List<String> listed = new ArrayList<>();
+    memberSupportRepository.streamSearch(condition, QueryOptions.LIST, dto -> listed.add(dto.getUsername()));
+    assertThat(listed).isEqualTo(streamed);
+
+    // limit 이 없는 쿼리에는 maxRows 가 상한으로 붙는다.
+    long limited = memberSupportRepository.streamSearch(condition,
+        QueryOptions.STREAM.toBuilder().maxRows(10).build(), dto -> { });
+    assertThat(limited).isEqualTo(10);
+  }
+
+  @Test
+  void searchColumns() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    for (int i = 0; i < 10; i++) {
+      em.persist(new Member("columns-member" + i, i, i % 2 == 0 ? teamA : teamB));
+    }
+    em.persist(new Member("columns-noteam", 99));
+    em.flush();
+    em.clear();
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsernameStartsWith("columns-");
+
+    MemberTeamColumns columns = memberSupportRepository.searchColumns(condition, true);
+
+    assertThat(columns.size()).isEqualTo(11);
+    assertThat(columns.teamNameCount()).isEqualTo(2);
+    assertThat(columns.username(0)).isEqualTo("columns-member0");
+    assertThat(columns.teamName(1)).isEqualTo("teamB");
+    assertThat(columns.teamId(10)).isEqualTo(MemberTeamColumns.NO_TEAM);
+
+    MemberTeamColumns withoutUsernames = memberSupportRepository.searchColumns(condition, false);
+    assertThat(withoutUsernames.hasUsernames()).isFalse();
+    assertThat(withoutUsernames.memberId(5)).isEqualTo(columns.memberId(5));
+  }
+
+  @Test
+  void searchPageReadOnly() {
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.flush();
+    em.clear();
+
+    Page<Member> result = memberSupportRepository.searchPageReadOnly(new MemberSearchCondition(),
+        PageRequest.of(0, 10));
+    Session session = em.unwrap(Session.class);
+    assertThat(result.getContent()).hasSize(2).allMatch(session::isReadOnly);
+
+    // 스냅샷이 없으므로 수정해도 update 가 나가지 않는다.
+    Member member1 = result.getContent().stream()
+        .filter(m -> m.getUsername().equals("member1"))
+        .findFirst().orElseThrow(IllegalStateException::new);
+    member1.setAge(99);
+    em.flush();
+    em.clear();
+    assertThat(em.find(Member.class, member1.getId()).getAge()).isEqualTo(10);
+  }
+
+}
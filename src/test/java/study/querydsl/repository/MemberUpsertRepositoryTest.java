@@ -0,0 +1,111 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberUpsertResult;
+import study.querydsl.dto.MemberUpsertRow;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberUpsertRepositoryTest {
+
+  @Autowired EntityManager em;
+  @Autowired JPAQueryFactory queryFactory;
+  @Autowired MemberUpsertRepository memberUpsertRepository;
+  @Autowired TeamStatsRepository teamStatsRepository;
+  @Autowired JdbcTemplate jdbcTemplate;
+
+  @Test
+  void upsert() {
+    Team teamA = new Team("upsert-teamA");
+    em.persist(teamA);
+    em.persist(new Member("upsert-1", 10));
+    em.flush();
+    em.clear();
+
+    MemberUpsertResult result = memberUpsertRepository.upsert(Arrays.asList(
+        new MemberUpsertRow("upsert-1", 11, "upsert-teamA"),
+        new MemberUpsertRow("upsert-2", 20, "upsert-teamA"),
+        new MemberUpsertRow("upsert-2", 21, "unknown-team")), 1);
+
+    assertThat(result.getInserted()).isEqualTo(1);
+    assertThat(result.getUpdated()).isEqualTo(1);
+    assertThat(result.getDuplicates()).isEqualTo(1);
+    assertThat(result.getBatches()).hasSize(2);
+
+    Member updated = queryFactory.selectFrom(member).where(member.username.eq("upsert-1")).fetchOne();
+    assertThat(updated.getAge()).isEqualTo(11);
+    assertThat(updated.getTeam().getName()).isEqualTo("upsert-teamA");
+
+    Member inserted = queryFactory.selectFrom(member).where(member.username.eq("upsert-2")).fetchOne();
+    assertThat(inserted.getId()).isNotNull();
+    assertThat(inserted.getAge()).isEqualTo(21);
+    assertThat(inserted.getTeam()).isNull();
+  }
+
+  @Test
+  void upsertMaintainsTeamStatsIncrementally() {
+    Team teamA = new Team("upsert-teamA");
+    Team teamB = new Team("upsert-teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    em.persist(new Member("upsert-1", 10, teamA));
+    em.persist(new Member("upsert-2", 20, teamB));
+    em.flush();
+    // teamB 는 upsert 대상이 아니므로 전체 재집계가 일어나지 않았다면 그대로 남는다.
+    jdbcTemplate.update("update team_stats set member_count = 99 where team_id = ?", teamB.getId());
+
+    memberUpsertRepository.upsert(Arrays.asList(
+        new MemberUpsertRow("upsert-1", 30, "upsert-teamA"),
+        new MemberUpsertRow("upsert-3", 40, "upsert-teamA")), 10);
+
+    Map<String, TeamStatsDto> stats = teamStatsRepository.findAll().stream()
+        .collect(Collectors.toMap(TeamStatsDto::getTeamName, Function.identity()));
+    assertThat(stats.get("upsert-teamA").getMemberCount()).isEqualTo(2L);
+    assertThat(stats.get("upsert-teamA").getMinAge()).isEqualTo(30);
+    assertThat(stats.get("upsert-teamA").getMaxAge()).isEqualTo(40);
+    assertThat(stats.get("upsert-teamB").getMemberCount()).isEqualTo(99L);
+  }
+
+  @Test
+  void rejectInvalidRequest() {
+    assertThatThrownBy(() -> memberUpsertRepository.upsert(Arrays.asList(
+        new MemberUpsertRow("upsert-1", 10, null),
+        new MemberUpsertRow(" ", 20, null)), 10))
+        .isInstanceOf(InvalidUpsertRequestException.class)
+        .hasMessageContaining("Row 1");
+    assertThatThrownBy(() -> memberUpsertRepository.upsert(
+        Collections.singletonList(new MemberUpsertRow("upsert-1", 10, null)), 0))
+        .isInstanceOf(InvalidUpsertRequestException.class);
+
+    assertThat(queryFactory.selectFrom(member).where(member.username.eq("upsert-1")).fetchOne()).isNull();
+  }
+
+  @Test
+  void usernameIsUnique() {
+    em.persist(new Member("upsert-dup", 10));
+    em.persist(new Member("upsert-dup", 20));
+
+    assertThatThrownBy(() -> em.flush()).isInstanceOf(PersistenceException.class);
+  }
+
+}
@@ -0,0 +1,84 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberWindowRepositoryTest {
+
+  @Autowired EntityManager em;
+  @Autowired JPAQueryFactory queryFactory;
+  @Autowired MemberWindowRepository memberWindowRepository;
+
+  @BeforeEach
+  void setUp() {
+    Team teamA = new Team("window-teamA");
+    Team teamB = new Team("window-teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    em.persist(new Member("window-member1", 10, teamA));
+    em.persist(new Member("window-member2", 20, teamA));
+    em.persist(new Member("window-member3", 30, teamA));
+    em.persist(new Member("window-member4", 30, teamB));
+    em.persist(new Member("window-member5", 40, teamB));
+    em.persist(new Member("window-member6", 15));
+    // SQL 쿼리는 영속성 컨텍스트를 거치지 않으므로 먼저 반영한다.
+    em.flush();
+    em.clear();
+  }
+
+  @Test
+  void findTopByAgePerTeam() {
+    List<MemberTeamDto> result = windowTeams(memberWindowRepository.findTopByAgePerTeam(2));
+
+    assertThat(result).extracting("username")
+        .containsExactly("window-member3", "window-member2", "window-member5", "window-member4");
+    assertThat(result).extracting("teamName")
+        .containsExactly("window-teamA", "window-teamA", "window-teamB", "window-teamB");
+  }
+
+  @Test
+  void findAboveTeamAverage() {
+    List<MemberTeamDto> result = windowTeams(memberWindowRepository.findAboveTeamAverage());
+
+    assertThat(result).extracting("username").containsExactly("window-member3", "window-member5");
+
+    // 상관 서브쿼리로 구한 결과와 같다.
+    QMember memberSub = new QMember("memberSub");
+    List<String> expected = queryFactory
+        .select(member.username)
+        .from(member)
+        .where(member.team.name.startsWith("window-"),
+            member.age.gt(JPAExpressions
+                .select(memberSub.age.avg())
+                .from(memberSub)
+                .where(memberSub.team.eq(member.team))))
+        .orderBy(member.id.asc())
+        .fetch();
+    assertThat(result).extracting("username").containsExactlyElementsOf(expected);
+  }
+
+  private List<MemberTeamDto> windowTeams(List<MemberTeamDto> result) {
+    return result.stream()
+        .filter(dto -> dto.getTeamName().startsWith("window-"))
+        .collect(Collectors.toList());
+  }
+
+}
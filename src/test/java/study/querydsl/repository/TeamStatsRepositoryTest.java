@@ -0,0 +1,127 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.readmodel.ReadModels;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class TeamStatsRepositoryTest {
+
+  @Autowired EntityManager em;
+  @Autowired JPAQueryFactory queryFactory;
+  @Autowired TeamStatsRepository teamStatsRepository;
+  @Autowired ReadModels readModels;
+  @Autowired JdbcTemplate jdbcTemplate;
+
+  Team teamA;
+  Team teamB;
+  Member member1;
+  Member member4;
+
+  @BeforeEach
+  void before() {
+    teamA = new Team("teamA");
+    teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+
+    member1 = new Member("member1", 10, teamA);
+    member4 = new Member("member4", 40, teamB);
+    em.persist(member1);
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30, teamB));
+    em.persist(member4);
+  }
+
+  @Test
+  void insert() {
+    List<TeamStatsDto> result = findAll();
+    assertThat(result).extracting("teamName").containsExactly("teamA", "teamB");
+    assertThat(result).extracting("memberCount").containsExactly(2L, 2L);
+    assertThat(result).extracting("averageAge").containsExactly(15.0, 35.0);
+    assertThat(result).extracting("minAge").containsExactly(10, 30);
+    assertThat(result).extracting("maxAge").containsExactly(20, 40);
+  }
+
+  @Test
+  void moveAndDelete() {
+    member4.setTeam(teamA);
+    em.remove(member1);
+
+    List<TeamStatsDto> result = findAll();
+    assertThat(result).extracting("memberCount").containsExactly(2L, 1L);
+    assertThat(result).extracting("minAge").containsExactly(20, 30);
+    assertThat(result).extracting("maxAge").containsExactly(40, 30);
+    assertThat(result).extracting("averageAge").containsExactly(30.0, 30.0);
+  }
+
+  @Test
+  void ageChangeWithinTeamAtMinAndMax() {
+    em.flush();
+    member1.setAge(5);   // teamA 의 최소 나이
+    member4.setAge(50);  // teamB 의 최대 나이
+
+    List<TeamStatsDto> result = findAll();
+    assertThat(result).extracting("memberCount").containsExactly(2L, 2L);
+    assertThat(result).extracting("averageAge").containsExactly(12.5, 40.0);
+    assertThat(result).extracting("minAge").containsExactly(5, 30);
+    assertThat(result).extracting("maxAge").containsExactly(20, 50);
+  }
+
+  @Test
+  void emptyTeam() {
+    em.persist(new Team("teamC"));
+
+    TeamStatsDto teamC = findAll().get(2);
+    assertThat(teamC.getMemberCount()).isZero();
+    assertThat(teamC.getAverageAge()).isNull();
+  }
+
+  @Test
+  void bulkUpdate() {
+    em.flush();
+    queryFactory
+        .update(member)
+        .set(member.age, member.age.add(1))
+        .execute();
+    readModels.rebuild();
+
+    assertThat(findAll()).extracting("maxAge").containsExactly(21, 41);
+  }
+
+  @Test
+  void bulkThroughReadModelsRecomputesOnlyAffectedTeams() {
+    em.flush();
+    // 전체를 다시 집계하면 되돌아가는 값. teamA 는 건드리지 않으므로 그대로 남아야 한다.
+    jdbcTemplate.update("update team_stats set member_count = 99 where team_id = ?", teamA.getId());
+
+    readModels.updateMembers(member.team.eq(teamB), update -> update.set(member.age, member.age.add(1)));
+    readModels.deleteMembers(member.username.eq("member3"));
+
+    List<TeamStatsDto> result = findAll();
+    assertThat(result).extracting("memberCount").containsExactly(99L, 1L);
+    assertThat(result).extracting("minAge").containsExactly(10, 41);
+    assertThat(result).extracting("maxAge").containsExactly(20, 41);
+  }
+
+  private List<TeamStatsDto> findAll() {
+    em.flush();
+    return teamStatsRepository.findAll();
+  }
+
+}
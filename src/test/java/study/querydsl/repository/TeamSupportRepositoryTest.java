@@ -0,0 +1,68 @@
+package study.querydsl.repository;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamSupportRepositoryTest {
+
+  @Autowired EntityManager em;
+  @Autowired TeamSupportRepository teamSupportRepository;
+
+  @BeforeEach
+  void setUp() {
+    // page-team0 ~ page-team4, 팀마다 회원 3명
+    for (int i = 0; i < 5; i++) {
+      Team team = new Team("page-team" + i);
+      em.persist(team);
+      for (int j = 0; j < 3; j++) {
+        em.persist(new Member("page-member" + i + "-" + j, j, team));
+      }
+    }
+    em.flush();
+    em.clear();
+  }
+
+  @Test
+  void findWithMembers() {
+    PageRequest pageRequest = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "teamName"));
+
+    Page<Team> result = teamSupportRepository.findWithMembers("page-team", pageRequest);
+
+    // 회원 행 수(15)가 아니라 팀 수 기준으로 잘린다.
+    assertThat(result.getTotalElements()).isEqualTo(5);
+    assertThat(result.getContent()).extracting("name").containsExactly("page-team2", "page-team1");
+    assertThat(result.getContent()).allMatch(t -> Hibernate.isInitialized(t.getMembers()));
+    assertThat(result.getContent().get(0).getMembers()).extracting("username")
+        .containsExactly("page-member2-0", "page-member2-1", "page-member2-2");
+  }
+
+  @Test
+  void findWithMembersAfter() {
+    Slice<Team> first = teamSupportRepository.findWithMembersAfter("page-team", null, 3);
+    assertThat(first.getContent()).extracting("name").containsExactly("page-team0", "page-team1", "page-team2");
+    assertThat(first.hasNext()).isTrue();
+    assertThat(first.getContent()).allMatch(t -> t.getMembers().size() == 3);
+
+    Long lastId = first.getContent().get(2).getId();
+    Slice<Team> second = teamSupportRepository.findWithMembersAfter("page-team", lastId, 3);
+    assertThat(second.getContent()).extracting("name").containsExactly("page-team3", "page-team4");
+    assertThat(second.hasNext()).isFalse();
+  }
+
+}
@@ -0,0 +1,32 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InClauseSupportTest {
+
+  @Test
+  void pad() {
+    assertThat(InClauseSupport.pad(Collections.emptyList())).isEmpty();
+    assertThat(InClauseSupport.pad(Arrays.asList(1L))).containsExactly(1L);
+    assertThat(InClauseSupport.pad(Arrays.asList(1L, 2L))).containsExactly(1L, 2L);
+    assertThat(InClauseSupport.pad(Arrays.asList(1L, 2L, 3L))).containsExactly(1L, 2L, 3L, 3L);
+    assertThat(InClauseSupport.pad(Arrays.asList(1L, 2L, 3L, 4L, 5L))).hasSize(8).endsWith(5L, 5L, 5L, 5L);
+  }
+
+  @Test
+  void partition() {
+    List<Integer> values = IntStream.range(0, 1100).boxed().collect(Collectors.toList());
+    List<List<Integer>> chunks = InClauseSupport.partition(values, 512);
+    assertThat(chunks).extracting(List::size).containsExactly(512, 512, 76);
+    assertThat(InClauseSupport.pad(chunks.get(2))).hasSize(128);
+  }
+
+}
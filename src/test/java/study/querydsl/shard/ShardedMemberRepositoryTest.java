@@ -0,0 +1,191 @@
+package study.querydsl.shard;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.MemberTeamCache;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchConditionPredicates;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberUpsertRow;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSqlRepository;
+import study.querydsl.repository.MemberUpsertRepository;
+import study.querydsl.repository.MemberWindowRepository;
+import study.querydsl.repository.TeamStatsRepository;
+import study.querydsl.repository.support.UnsupportedSortException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+    "shard.enabled=true",
+    "shard.count=3",
+    "shard.url-template=jdbc:h2:mem:sharded-member-test-{index};DB_CLOSE_DELAY=-1"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShardedMemberRepositoryTest {
+
+  @Autowired ShardRegistry shardRegistry;
+  @Autowired ShardedMemberRepository shardedMemberRepository;
+  @Autowired MemberRepository memberRepository;
+  @Autowired MemberJpaRepository memberJpaRepository;
+  @Autowired MemberUpsertRepository memberUpsertRepository;
+  @Autowired TransactionTemplate transactionTemplate;
+  @Autowired MemberTeamCache memberTeamCache;
+  @Autowired TeamStatsRepository teamStatsRepository;
+  @Autowired MemberSqlRepository memberSqlRepository;
+  @Autowired MemberWindowRepository memberWindowRepository;
+
+  @BeforeAll
+  void before() {
+    for (int t = 0; t < 6; t++) {
+      Team team = shardedMemberRepository.saveTeam("team" + t);
+      assertThat(shardRegistry.byId(team.getId())).isSameAs(shardRegistry.byKey("team" + t));
+      for (int m = 0; m < 5; m++) {
+        shardedMemberRepository.saveMember("member" + t + m, (t * 7 + m * 3) % 40, team.getId());
+      }
+    }
+    shardedMemberRepository.saveMember("no-team", 99, null);
+  }
+
+  @Test
+  void searchMergesAllShards() {
+    List<MemberTeamDto> result = memberRepository.search(new MemberSearchCondition());
+
+    assertThat(result).hasSize(31);
+    assertThat(result).isSortedAccordingTo(Comparator.comparing(MemberTeamDto::getMemberId));
+    assertThat(result.stream().map(MemberTeamDto::getMemberId).distinct().count()).isEqualTo(31);
+  }
+
+  @Test
+  void pagesMatchGlobalOrder() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeLoe(30);
+    List<MemberTeamDto> all = memberRepository.search(condition);
+    List<MemberTeamDto> expected = all.stream()
+        // tiebreaker 는 단일 DB 경로(SortWhitelist)처럼 마지막 정렬 방향을 따른다.
+        .sorted(Comparator.comparingInt(MemberTeamDto::getAge).reversed()
+            .thenComparing(MemberTeamDto::getMemberId, Comparator.reverseOrder()))
+        .collect(Collectors.toList());
+
+    List<MemberTeamDto> paged = new ArrayList<>();
+    int size = 4;
+    for (int page = 0; page * size < expected.size(); page++) {
+      Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition,
+          PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "age")));
+      assertThat(result.getTotalElements()).isEqualTo(expected.size());
+      paged.addAll(result.getContent());
+    }
+
+    assertThat(paged).extracting("memberId")
+        .containsExactlyElementsOf(expected.stream().map(MemberTeamDto::getMemberId).collect(Collectors.toList()));
+  }
+
+  @Test
+  void everyConditionShapeMatchesInMemoryFilter() {
+    List<MemberTeamDto> all = memberRepository.search(new MemberSearchCondition());
+    for (int shape = 0; shape < 1 << 6; shape++) {
+      MemberSearchCondition condition = conditionOf(shape);
+
+      List<MemberTeamDto> expected = all.stream().filter(dto -> matches(condition, dto)).collect(Collectors.toList());
+
+      assertThat(memberRepository.search(condition))
+          .as(MemberSearchConditionPredicates.describe(shape))
+          .extracting("memberId")
+          .containsExactlyElementsOf(expected.stream().map(MemberTeamDto::getMemberId).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  void primaryWritesAreRejected() {
+    assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+        memberJpaRepository.save(new Member("primary-member", 10))))
+        // flush 가 커밋 중에 일어나므로 트랜잭션 예외로 감싸질 수 있다.
+        .satisfies(e -> assertThat(NestedExceptionUtils.getMostSpecificCause(e))
+            .isInstanceOf(UnsupportedShardWriteException.class));
+    assertThatThrownBy(() -> memberUpsertRepository.upsert(
+        Collections.singletonList(new MemberUpsertRow("primary-member", 10, null)), 10))
+        .isInstanceOf(UnsupportedShardWriteException.class);
+  }
+
+  @Test
+  void findByIdReadsOwningShard() {
+    MemberTeamDto expected = memberRepository.search(new MemberSearchCondition()).stream()
+        .filter(dto -> dto.getTeamId() != null)
+        .findFirst()
+        .orElseThrow(IllegalStateException::new);
+
+    MemberTeamDto found = memberTeamCache.findMember(expected.getMemberId());
+
+    assertThat(found).usingRecursiveComparison().isEqualTo(expected);
+    assertThat(memberTeamCache.findTeamName(expected.getTeamId())).isEqualTo(expected.getTeamName());
+  }
+
+  @Test
+  void primaryOnlyReadsAreRejected() {
+    assertThatThrownBy(() -> teamStatsRepository.findAll())
+        .isInstanceOf(UnsupportedShardReadException.class);
+    assertThatThrownBy(() -> memberSqlRepository.search(new MemberSearchCondition(), 10))
+        .isInstanceOf(UnsupportedShardReadException.class);
+    assertThatThrownBy(() -> memberWindowRepository.findAboveTeamAverage())
+        .isInstanceOf(UnsupportedShardReadException.class);
+  }
+
+  @Test
+  void unknownSortPropertyIsBadRequest() {
+    assertThatThrownBy(() -> memberRepository.searchPageComplex(new MemberSearchCondition(),
+        PageRequest.of(0, 10, Sort.by("teamName"))))
+        .isInstanceOf(UnsupportedSortException.class);
+  }
+
+  // 비트 순서는 MemberSearchConditionPredicates 의 상수와 같다. 값은 before() 의 데이터에 맞춘다.
+  private static MemberSearchCondition conditionOf(int shape) {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    if ((shape & MemberSearchConditionPredicates.USERNAME) != 0) {
+      condition.setUsername("member12");
+    }
+    if ((shape & MemberSearchConditionPredicates.USERNAME_STARTS_WITH) != 0) {
+      condition.setUsernameStartsWith("member1");
+    }
+    if ((shape & MemberSearchConditionPredicates.USERNAME_CONTAINS) != 0) {
+      condition.setUsernameContains("ber1");
+    }
+    if ((shape & MemberSearchConditionPredicates.TEAM_NAME) != 0) {
+      condition.setTeamName("team1");
+    }
+    if ((shape & MemberSearchConditionPredicates.AGE_GOE) != 0) {
+      condition.setAgeGoe(5);
+    }
+    if ((shape & MemberSearchConditionPredicates.AGE_LOE) != 0) {
+      condition.setAgeLoe(30);
+    }
+    return condition;
+  }
+
+  private static boolean matches(MemberSearchCondition condition, MemberTeamDto dto) {
+    return (condition.getUsername() == null || condition.getUsername().equals(dto.getUsername()))
+        && (condition.getUsernameStartsWith() == null || dto.getUsername().startsWith(condition.getUsernameStartsWith()))
+        && (condition.getUsernameContains() == null || dto.getUsername().contains(condition.getUsernameContains()))
+        && (condition.getTeamName() == null || condition.getTeamName().equals(dto.getTeamName()))
+        && (condition.getAgeGoe() == null || dto.getAge() >= condition.getAgeGoe())
+        && (condition.getAgeLoe() == null || dto.getAge() <= condition.getAgeLoe());
+  }
+
+}
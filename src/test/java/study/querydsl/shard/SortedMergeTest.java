@@ -0,0 +1,33 @@
+package study.querydsl.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedMergeTest {
+
+  List<List<Integer>> lists = Arrays.asList(
+      Arrays.asList(1, 4, 7, 10),
+      Collections.emptyList(),
+      Arrays.asList(2, 3, 8),
+      Arrays.asList(5, 6, 9));
+
+  @Test
+  void mergeAll() {
+    assertThat(SortedMerge.merge(lists, Comparator.naturalOrder(), 0, Integer.MAX_VALUE))
+        .containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+  }
+
+  @Test
+  void offsetAndLimit() {
+    assertThat(SortedMerge.merge(lists, Comparator.naturalOrder(), 3, 4)).containsExactly(4, 5, 6, 7);
+    assertThat(SortedMerge.merge(lists, Comparator.naturalOrder(), 8, 4)).containsExactly(9, 10);
+    assertThat(SortedMerge.merge(lists, Comparator.naturalOrder(), 20, 4)).isEmpty();
+  }
+
+}
@@ -0,0 +1,61 @@
+package study.querydsl.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 예산을 1ms 로 줘서 워밍업이 중간에 멈추고, 그래도 readiness 가 열리기 전에 끝나는지 본다.
+@SpringBootTest(properties = {
+    "member.warmup.enabled=true",
+    "member.warmup.budget=1ms",
+    "member.warmup.iterations=3"
+})
+class MemberQueryWarmupContextTest {
+
+  @Autowired MemberQueryWarmup warmup;
+  @Autowired ApplicationAvailability availability;
+  @Autowired AtomicReference<WarmupReport> reportAtReadiness;
+
+  @Test
+  void stopsWithinBudgetBeforeReadiness() {
+    WarmupReport report = warmup.getLastReport();
+
+    assertThat(report).isNotNull();
+    assertThat(report.isBudgetExhausted()).isTrue();
+    assertThat(report.getExecuted()).isLessThan(report.getQueries() * 3);
+    assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    // readiness 이벤트 시점에 이미 결과가 있어야 한다.
+    assertThat(reportAtReadiness.get()).isSameAs(report);
+  }
+
+  @TestConfiguration
+  static class ReadinessCapture {
+
+    @Autowired ObjectProvider<MemberQueryWarmup> warmup;
+
+    @Bean
+    AtomicReference<WarmupReport> reportAtReadiness() {
+      return new AtomicReference<>();
+    }
+
+    @EventListener
+    void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+      if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+        reportAtReadiness().set(warmup.getObject().getLastReport());
+      }
+    }
+
+  }
+
+}
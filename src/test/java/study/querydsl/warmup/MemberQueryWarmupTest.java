@@ -0,0 +1,54 @@
+package study.querydsl.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import study.querydsl.controller.MemberReadPaths;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchConditionPredicates;
+import study.querydsl.repository.MemberTeamQueries;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemberQueryWarmupTest {
+
+  @Test
+  void conditionOfCoversEveryShape() {
+    for (int shape = 0; shape < 1 << 6; shape++) {
+      assertThat(MemberSearchConditionPredicates.shapeOf(MemberQueryWarmup.conditionOf(shape)))
+          .as(MemberSearchConditionPredicates.describe(shape))
+          .isEqualTo(shape);
+    }
+  }
+
+  @Test
+  void continueAfterFailingQuery() {
+    // v1 조회만 실패하고 v2, v3 는 성공한다.
+    MemberTeamQueries failing = mock(MemberTeamQueries.class);
+    when(failing.search(any(MemberSearchCondition.class), anyLong())).thenThrow(new IllegalStateException("boom"));
+    MemberTeamQueries working = mock(MemberTeamQueries.class);
+    MemberReadPaths readPaths = mock(MemberReadPaths.class);
+    when(readPaths.forEndpoint("v1")).thenReturn(failing);
+    when(readPaths.forEndpoint("v2")).thenReturn(working);
+    when(readPaths.forEndpoint("v3")).thenReturn(working);
+    WarmupProperties properties = new WarmupProperties();
+    properties.setBudget(Duration.ofMinutes(1));
+    properties.setIterations(2);
+    MemberQueryWarmup warmup = new MemberQueryWarmup(properties, readPaths, new ObjectMapper());
+
+    warmup.run(null);
+
+    WarmupReport report = warmup.getLastReport();
+    assertThat(report.isBudgetExhausted()).isFalse();
+    assertThat(report.getExecuted()).isEqualTo(report.getQueries() * 2);
+    // 조건 조합마다 v1 조회가 하나씩 있다.
+    assertThat(report.getFailures()).isEqualTo(64 * 2);
+    assertThat(report.getPassMillis()).hasSize(2);
+  }
+
+}